@@ -2,8 +2,10 @@ package com.web.prime_drip_club;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PrimeDripClubApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,137 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.models.Categoria;
+import com.web.prime_drip_club.repository.CacheVersionRepository;
+import com.web.prime_drip_club.repository.ProductoCambioRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Archivo local con el catálogo (productos activos y categorías) para que
+ * un reinicio sirva peticiones sin esperar a la carga desde MySQL.
+ * <p>
+ * Al arrancar, antes que los precargadores, se mapea el archivo y se
+ * comprueba contra las versiones de la BD: los productos se instalan si
+ * el registro producto_cambio aún conserva los cambios posteriores al
+ * archivo, y CatalogoProductos los aplica en segundo plano; las categorías
+ * solo se instalan si su versión coincide exactamente. Si el archivo no
+ * sirve, cada caché se carga desde MySQL como siempre.
+ * </p>
+ * Se reescribe periódicamente y al parar la aplicación. Las versiones que
+ * se graban son las que cada snapshot leyó antes de sus datos, así que el
+ * archivo nunca dice incluir un cambio que no tiene, aunque la caché vaya
+ * por detrás de la BD (a lo sumo, al arrancar se vuelven a aplicar cambios
+ * ya incluidos).
+ */
+@Slf4j
+@Component
+public class ArchivoCatalogo {
+
+    private static final String REGION_CATEGORIAS = "categoria";
+
+    private final CatalogoProductos catalogoProductos;
+    private final RegistroCategorias registroCategorias;
+    private final ProductoCambioRepository productoCambioRepository;
+    private final CacheVersionRepository cacheVersionRepository;
+    private final Path archivo;
+
+    /* versiones locales de lo último escrito, para no reescribir un catálogo sin cambios */
+    private long versionCatalogoEscrita = -1;
+    private long versionCategoriasEscrita = -1;
+
+    public ArchivoCatalogo(CatalogoProductos catalogoProductos,
+                           RegistroCategorias registroCategorias,
+                           ProductoCambioRepository productoCambioRepository,
+                           CacheVersionRepository cacheVersionRepository,
+                           @Value("${catalogo.archivo.ruta:data/catalogo.bin}") String ruta) {
+        this.catalogoProductos = catalogoProductos;
+        this.registroCategorias = registroCategorias;
+        this.productoCambioRepository = productoCambioRepository;
+        this.cacheVersionRepository = cacheVersionRepository;
+        this.archivo = Path.of(ruta);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        CodecCatalogo.Contenido contenido;
+        try {
+            contenido = CodecCatalogo.leer(archivo);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (Exception e) {
+            log.warn("Archivo de catálogo {} no válido, se ignora: {}", archivo, e.getMessage());
+            return;
+        }
+        try {
+            Long versionCategorias = cacheVersionRepository.findAll().get(REGION_CATEGORIAS);
+            if (versionCategorias != null && versionCategorias == contenido.versionCategorias()
+                    && registroCategorias.instalar(contenido.categorias(), contenido.versionCategorias())) {
+                log.info("Categorías cargadas desde {}: {} categorías", archivo, contenido.categorias().size());
+            }
+
+            long desde = contenido.versionCambios();
+            if (desde > productoCambioRepository.versionActual()
+                    || desde < productoCambioRepository.versionCompactada()) {
+                log.info("Archivo de catálogo {} fuera del historial de cambios, se carga desde MySQL", archivo);
+                return;
+            }
+            if (catalogoProductos.instalar(contenido.productos(), desde)) {
+                log.info("Catálogo de productos cargado desde {}: {} productos activos, poniéndolo al día desde la versión {}",
+                        archivo, contenido.productos().size(), desde);
+                // si falla, la sincronización periódica lo reintenta
+                Thread.ofVirtual().name("sincronizacion-catalogo").start(catalogoProductos::sincronizar);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo validar el archivo de catálogo {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.archivo.intervalo:PT1M}",
+            initialDelayString = "${catalogo.archivo.intervalo:PT1M}")
+    public synchronized void guardar() {
+        try {
+            escribir();
+        } catch (Exception e) {
+            log.warn("No se pudo guardar el archivo de catálogo {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    /* si nunca se llegó a escribir, el catálogo no se cargó: no se fuerza una carga al parar */
+    @PreDestroy
+    public synchronized void guardarAlParar() {
+        if (versionCatalogoEscrita < 0) {
+            return;
+        }
+        guardar();
+    }
+
+    private void escribir() throws Exception {
+        CatalogoSnapshot catalogo = catalogoProductos.snapshot();
+        long versionRegistro = registroCategorias.version();
+        if (catalogo.version() == versionCatalogoEscrita && versionRegistro == versionCategoriasEscrita
+                && Files.exists(archivo)) {
+            return;
+        }
+        // la versión de BD antes que las categorías: así nunca es más nueva que ellas
+        long versionCategoriasBd = registroCategorias.versionBd();
+        List<Categoria> categorias = registroCategorias.todas();
+        CodecCatalogo.escribir(archivo, new CodecCatalogo.Contenido(catalogo.versionCambios(), versionCategoriasBd,
+                categorias, catalogo.activos()));
+        versionCatalogoEscrita = catalogo.version();
+        versionCategoriasEscrita = versionRegistro;
+        log.debug("Archivo de catálogo {} guardado: {} productos", archivo, catalogo.tamano());
+    }
+}
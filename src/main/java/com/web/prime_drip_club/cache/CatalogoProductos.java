@@ -0,0 +1,269 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.dto.common.Pagina;
+import com.web.prime_drip_club.dto.producto.CursorProducto;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.models.ProductoCambio;
+import com.web.prime_drip_club.repository.ProductoCambioRepository;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo de productos activos en memoria.
+ * <p>
+ * Los lectores obtienen el snapshot actual sin bloqueos. Las escrituras
+ * (cambios de ProductoService o reconstrucciones) se serializan y publican
+ * un snapshot nuevo de forma atómica, por lo que un lector nunca ve un
+ * catálogo a medio actualizar.
+ * </p>
+ * <p>
+ * Cada snapshot sabe hasta qué versión de producto_cambio incluye todos los
+ * cambios: al reconstruir se lee la versión antes que los datos. Cada poco
+ * se aplican los cambios posteriores del registro, de modo que el catálogo
+ * se pone al día aunque se pierda un evento o falle una recarga pedida por
+ * otro nodo.
+ * </p>
+ * Métricas: catalogo.productos.consultas{resultado=hit|miss},
+ * catalogo.productos.reconstruccion, catalogo.productos.version y
+ * catalogo.productos.tamano.
+ */
+@Slf4j
+@Component
+public class CatalogoProductos {
+
+    /* cambios del registro leídos por consulta al ponerse al día */
+    private static final int LOTE_CAMBIOS = 1000;
+
+    private final ProductoRepository productoRepository;
+    private final ProductoCambioRepository productoCambioRepository;
+    private final AtomicReference<CatalogoSnapshot> snapshot = new AtomicReference<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer reconstrucciones;
+
+    public CatalogoProductos(ProductoRepository productoRepository,
+                             ProductoCambioRepository productoCambioRepository,
+                             MeterRegistry meterRegistry) {
+        this.productoRepository = productoRepository;
+        this.productoCambioRepository = productoCambioRepository;
+        this.hits = Counter.builder("catalogo.productos.consultas")
+                .tag("resultado", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("catalogo.productos.consultas")
+                .tag("resultado", "miss")
+                .register(meterRegistry);
+        this.reconstrucciones = Timer.builder("catalogo.productos.reconstruccion")
+                .description("Tiempo de carga del catálogo desde MySQL")
+                .register(meterRegistry);
+        Gauge.builder("catalogo.productos.version", snapshot, ref -> ref.get() != null ? ref.get().version() : -1)
+                .register(meterRegistry);
+        Gauge.builder("catalogo.productos.tamano", snapshot, ref -> ref.get() != null ? ref.get().tamano() : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Snapshot actual; si aún no se ha cargado lo construye desde la BD.
+     */
+    public CatalogoSnapshot snapshot() {
+        CatalogoSnapshot actual = snapshot.get();
+        if (actual != null) {
+            hits.increment();
+            return actual;
+        }
+        misses.increment();
+        return cargarSiFalta();
+    }
+
+    public List<ProductoCardResponse> obtenerActivos() {
+        return snapshot().activos();
+    }
+
+    public Pagina<ProductoCardResponse> obtenerActivos(CursorProducto cursor, int limite) {
+        return snapshot().pagina(cursor, limite);
+    }
+
+    /**
+     * Vuelve a leer todos los productos activos y reemplaza el snapshot.
+     */
+    public synchronized CatalogoSnapshot reconstruir() {
+        CatalogoSnapshot anterior = snapshot.get();
+        long version = anterior != null ? anterior.version() + 1 : 1;
+        CatalogoSnapshot nuevo = reconstrucciones.record(() -> {
+            // la versión ANTES que los datos: los cambios hasta ella ya están confirmados
+            long versionCambios = productoCambioRepository.versionActual();
+            return CatalogoSnapshot.de(version, versionCambios, productoRepository.findCards(true).stream()
+                    .map(ProductoCardResponse::desde)
+                    .toList());
+        });
+        snapshot.set(nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Publica como primer snapshot los productos leídos del archivo de
+     * snapshot, sin consultar MySQL.
+     *
+     * @param versionCambios versión de producto_cambio que el archivo incluye
+     * @return false si el catálogo ya estaba cargado (no se reemplaza)
+     */
+    public synchronized boolean instalar(List<ProductoCardResponse> productos, long versionCambios) {
+        return snapshot.compareAndSet(null, CatalogoSnapshot.de(1, versionCambios, productos));
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.productos.sincronizacion:PT10S}",
+            initialDelayString = "${catalogo.productos.sincronizacion:PT10S}")
+    public void sincronizar() {
+        try {
+            ponerAlDia();
+        } catch (Exception e) {
+            log.warn("No se pudo poner al día el catálogo de productos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica los cambios de producto_cambio posteriores a la versión del
+     * snapshot, con el estado actual de cada producto afectado. Si el
+     * registro no permite ponerse al día (ver {@link #leerCambios}) se
+     * reconstruye.
+     */
+    public synchronized void ponerAlDia() {
+        CatalogoSnapshot actual = snapshot.get();
+        if (actual == null) {
+            return;
+        }
+        LoteCambios lote;
+        do {
+            lote = leerCambios(actual.versionCambios());
+            if (lote == null) {
+                reconstruir();
+                return;
+            }
+            if (lote.vacio()) {
+                return;
+            }
+            actual = actual.conCambios(lote.guardados().stream().map(ProductoCardResponse::desde).toList(),
+                    lote.eliminados(), lote.hasta());
+            snapshot.set(actual);
+        } while (!lote.completo());
+    }
+
+    /**
+     * Cambios del registro en (desde, hasta] con el estado actual de cada
+     * producto: los que ya no existen van en eliminados.
+     *
+     * @param hasta    versión del último cambio leído (desde si no hay ninguno)
+     * @param completo false si quedan más cambios después de este lote
+     */
+    public record LoteCambios(List<Producto> guardados, List<Long> eliminados, long hasta, boolean completo) {
+
+        public boolean vacio() {
+            return guardados.isEmpty() && eliminados.isEmpty();
+        }
+    }
+
+    /**
+     * Lee el siguiente lote de cambios posteriores a la versión indicada.
+     * Devuelve null si hay que reconstruir desde la BD: un marcador de carga
+     * masiva, un historial ya compactado o una versión por delante del
+     * registro (BD restaurada).
+     */
+    public LoteCambios leerCambios(long desde) {
+        List<ProductoCambio> cambios = productoCambioRepository.findDesde(desde, LOTE_CAMBIOS);
+        // el límite se lee DESPUÉS de los cambios: la compactación lo marca antes de borrar
+        if (desde < productoCambioRepository.versionCompactada()) {
+            return null;
+        }
+        if (cambios.isEmpty()) {
+            if (desde > productoCambioRepository.versionActual()) {
+                return null;
+            }
+            return new LoteCambios(List.of(), List.of(), desde, true);
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ProductoCambio cambio : cambios) {
+            if (cambio.getProductoId() == null) {
+                return null;
+            }
+            ids.add(cambio.getProductoId());
+        }
+        Map<Long, Producto> encontrados = productoRepository.findByIds(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        List<Producto> guardados = new ArrayList<>();
+        List<Long> eliminados = new ArrayList<>();
+        for (Long id : ids) {
+            Producto producto = encontrados.get(id);
+            if (producto != null) {
+                guardados.add(producto);
+            } else {
+                eliminados.add(id);
+            }
+        }
+        return new LoteCambios(guardados, eliminados, cambios.get(cambios.size() - 1).getVersion(),
+                cambios.size() < LOTE_CAMBIOS);
+    }
+
+    private synchronized CatalogoSnapshot cargarSiFalta() {
+        // Otro hilo pudo haberlo cargado mientras esperábamos el lock
+        CatalogoSnapshot actual = snapshot.get();
+        return actual != null ? actual : reconstruir();
+    }
+
+    /**
+     * Aplica los cambios de ProductoService una vez confirmada la transacción.
+     * Si el catálogo aún no se ha cargado no hay nada que parchear. Los
+     * cambios se leen del registro, no del evento, para que la versión de
+     * cambios del snapshot avance junto con los datos (de ella sale el ETag).
+     * Si falla, los aplica la siguiente sincronización.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoModificado(ProductoModificadoEvent event) {
+        if (snapshot.get() == null) {
+            return;
+        }
+        try {
+            if (event.recargaCompleta()) {
+                reconstruir();
+            } else {
+                ponerAlDia();
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron aplicar los cambios de productos al catálogo: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        if (snapshot.get() != null) {
+            // ya instalado desde el archivo de snapshot
+            return;
+        }
+        try {
+            CatalogoSnapshot cargado = reconstruir();
+            log.info("Catálogo de productos precargado: {} productos activos", cargado.tamano());
+        } catch (Exception e) {
+            // Se reintentará en la primera consulta
+            log.warn("No se pudo precargar el catálogo de productos: {}", e.getMessage());
+        }
+    }
+}
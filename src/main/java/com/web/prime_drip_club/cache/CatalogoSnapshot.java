@@ -0,0 +1,86 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.dto.common.Pagina;
+import com.web.prime_drip_club.dto.producto.CursorProducto;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vista inmutable y versionada de los productos activos.
+ * Nunca se modifica: cada cambio produce un snapshot nuevo (copy-on-write).
+ *
+ * @param version        se incrementa con cada cambio aplicado (solo tiene sentido en este nodo)
+ * @param versionCambios versión de producto_cambio hasta la que todos los cambios están
+ *                       incluidos; puede incluir además cambios posteriores
+ * @param activos        productos activos ordenados por fecha_creacion DESC, id DESC
+ * @param porId          los mismos productos indexados por ID
+ */
+public record CatalogoSnapshot(long version, long versionCambios, List<ProductoCardResponse> activos,
+                               Map<Long, ProductoCardResponse> porId) {
+
+    /** Mismo orden que las consultas del repositorio: más recientes primero. */
+    static final Comparator<ProductoCardResponse> ORDEN = Comparator
+            .comparing(ProductoCardResponse::getFechaCreacion, Comparator.nullsFirst(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(ProductoCardResponse::getId, Comparator.reverseOrder());
+
+    public static CatalogoSnapshot de(long version, long versionCambios, Collection<ProductoCardResponse> productos) {
+        Map<Long, ProductoCardResponse> porId = new HashMap<>();
+        for (ProductoCardResponse producto : productos) {
+            if (Boolean.TRUE.equals(producto.getActivo())) {
+                porId.put(producto.getId(), producto);
+            }
+        }
+        List<ProductoCardResponse> activos = porId.values().stream()
+                .sorted(ORDEN)
+                .toList();
+        return new CatalogoSnapshot(version, versionCambios, activos, Map.copyOf(porId));
+    }
+
+    /**
+     * Devuelve un snapshot nuevo con los cambios aplicados. Los productos
+     * guardados que ya no están activos se retiran del catálogo.
+     *
+     * @param versionCambios versión de producto_cambio que cubre el snapshot
+     *                       resultante (la del último cambio aplicado)
+     */
+    public CatalogoSnapshot conCambios(Collection<ProductoCardResponse> guardados, Collection<Long> eliminados,
+                                       long versionCambios) {
+        Map<Long, ProductoCardResponse> copia = new HashMap<>(porId);
+        eliminados.forEach(copia::remove);
+        guardados.forEach(producto -> copia.put(producto.getId(), producto));
+        return de(version + 1, versionCambios, copia.values());
+    }
+
+    /**
+     * Misma semántica que ProductoRepository.findPagina pero sobre la lista
+     * en memoria: búsqueda binaria del cursor y sublista.
+     */
+    public Pagina<ProductoCardResponse> pagina(CursorProducto cursor, int limite) {
+        int desde = 0;
+        if (cursor != null) {
+            ProductoCardResponse posicion = ProductoCardResponse.builder()
+                    .fechaCreacion(cursor.fechaCreacion())
+                    .id(cursor.id())
+                    .build();
+            int indice = Collections.binarySearch(activos, posicion, ORDEN);
+            desde = indice >= 0 ? indice + 1 : -indice - 1;
+        }
+        int hasta = Math.min(desde + limite, activos.size());
+        List<ProductoCardResponse> items = activos.subList(desde, hasta);
+        String nextCursor = hasta < activos.size() && !items.isEmpty()
+                ? CursorProducto.de(items.get(items.size() - 1)).codificar()
+                : null;
+        return new Pagina<>(items, nextCursor);
+    }
+
+    public int tamano() {
+        return activos.size();
+    }
+}
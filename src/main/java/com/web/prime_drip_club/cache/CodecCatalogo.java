@@ -0,0 +1,311 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.models.Categoria;
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.SexoProducto;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binario del archivo de snapshot del catálogo.
+ * <pre>
+ * cabecera   MAGIA, FORMATO, versión de cambios, versión de categorías
+ * categorías n, (id, nombre, descripcion)*
+ * diccionarios marca, etiqueta, sexo: n, cadena*
+ * productos  n y una columna por campo: id[n], precio[n] (céntimos),
+ *            stock[n], categoriaId[n], fecha[n] (microsegundos UTC),
+ *            marca[n], etiqueta[n], sexo[n] (índices de diccionario, -1 = null),
+ *            flags[n] (bit 0 activo, bit 1 destacado), nombre[n], imagenUrl[n]
+ * pie        CRC32 de todo lo anterior
+ * </pre>
+ * Las cadenas son longitud (-1 = null) + bytes UTF-8. Los enums se guardan
+ * por su valor en el diccionario, no por ordinal, para que reordenar las
+ * constantes no invalide archivos ya escritos.
+ */
+final class CodecCatalogo {
+
+    private static final int MAGIA = 0x50444331; // "PDC1"
+    private static final int FORMATO = 1;
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    /**
+     * @param versionCambios    versión de producto_cambio que los productos incluyen seguro
+     * @param versionCategorias versión de cache_version 'categoria' de las categorías
+     */
+    record Contenido(long versionCambios, long versionCategorias,
+                     List<Categoria> categorias, List<ProductoCardResponse> productos) {
+    }
+
+    private CodecCatalogo() {
+    }
+
+    /**
+     * Escribe en un temporal y lo renombra, de modo que un lector nunca ve
+     * un archivo a medio escribir.
+     */
+    static void escribir(Path archivo, Contenido contenido) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream salida = Files.newOutputStream(temporal);
+                 DataOutputStream datos = new DataOutputStream(
+                         new CheckedOutputStream(new BufferedOutputStream(salida, 1 << 16), crc))) {
+                escribirContenido(datos, contenido);
+                datos.flush();
+                // el CRC no se incluye a sí mismo
+                new DataOutputStream(salida).writeInt((int) crc.getValue());
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Mapea el archivo en memoria (FileChannel.map) y lo decodifica.
+     *
+     * @throws IOException si no existe, está truncado o el CRC no coincide
+     */
+    static Contenido leer(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < 4 || tamano > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de snapshot no válido: " + tamano);
+            }
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            CRC32 crc = new CRC32();
+            crc.update(mapa.slice(0, (int) tamano - 4));
+            if ((int) crc.getValue() != mapa.getInt((int) tamano - 4)) {
+                throw new IOException("CRC del snapshot no coincide");
+            }
+            return leerContenido(mapa.limit((int) tamano - 4));
+        }
+    }
+
+    private static void escribirContenido(DataOutputStream datos, Contenido contenido) throws IOException {
+        datos.writeInt(MAGIA);
+        datos.writeInt(FORMATO);
+        datos.writeLong(contenido.versionCambios());
+        datos.writeLong(contenido.versionCategorias());
+
+        datos.writeInt(contenido.categorias().size());
+        for (Categoria categoria : contenido.categorias()) {
+            datos.writeLong(categoria.getId());
+            escribirCadena(datos, categoria.getNombre());
+            escribirCadena(datos, categoria.getDescripcion());
+        }
+
+        List<ProductoCardResponse> productos = contenido.productos();
+        Diccionario marcas = new Diccionario();
+        Diccionario etiquetas = new Diccionario();
+        Diccionario sexos = new Diccionario();
+        int n = productos.size();
+        int[] marca = new int[n];
+        int[] etiqueta = new int[n];
+        int[] sexo = new int[n];
+        for (int i = 0; i < n; i++) {
+            ProductoCardResponse producto = productos.get(i);
+            marca[i] = marcas.indice(producto.getMarca());
+            etiqueta[i] = etiquetas.indice(producto.getEtiqueta() != null ? producto.getEtiqueta().getValor() : null);
+            sexo[i] = sexos.indice(producto.getSexo() != null ? producto.getSexo().getValor() : null);
+        }
+        marcas.escribir(datos);
+        etiquetas.escribir(datos);
+        sexos.escribir(datos);
+
+        datos.writeInt(n);
+        for (ProductoCardResponse producto : productos) {
+            datos.writeLong(producto.getId());
+        }
+        for (ProductoCardResponse producto : productos) {
+            datos.writeLong(producto.getPrecio().movePointRight(2).longValueExact());
+        }
+        for (ProductoCardResponse producto : productos) {
+            datos.writeInt(producto.getStock());
+        }
+        for (ProductoCardResponse producto : productos) {
+            datos.writeLong(producto.getCategoriaId());
+        }
+        for (ProductoCardResponse producto : productos) {
+            datos.writeLong(aMicros(producto.getFechaCreacion()));
+        }
+        for (int i = 0; i < n; i++) {
+            datos.writeInt(marca[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            datos.writeByte(etiqueta[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            datos.writeByte(sexo[i]);
+        }
+        for (ProductoCardResponse producto : productos) {
+            datos.writeByte((Boolean.TRUE.equals(producto.getActivo()) ? 1 : 0)
+                    | (Boolean.TRUE.equals(producto.getIsFeatured()) ? 2 : 0));
+        }
+        for (ProductoCardResponse producto : productos) {
+            escribirCadena(datos, producto.getNombre());
+        }
+        for (ProductoCardResponse producto : productos) {
+            escribirCadena(datos, producto.getImagenUrl());
+        }
+    }
+
+    private static Contenido leerContenido(ByteBuffer datos) throws IOException {
+        if (datos.getInt() != MAGIA || datos.getInt() != FORMATO) {
+            throw new IOException("Formato de snapshot desconocido");
+        }
+        long versionCambios = datos.getLong();
+        long versionCategorias = datos.getLong();
+
+        int totalCategorias = datos.getInt();
+        List<Categoria> categorias = new ArrayList<>(totalCategorias);
+        for (int i = 0; i < totalCategorias; i++) {
+            categorias.add(Categoria.builder()
+                    .id(datos.getLong())
+                    .nombre(leerCadena(datos))
+                    .descripcion(leerCadena(datos))
+                    .build());
+        }
+
+        List<String> marcas = leerDiccionario(datos);
+        List<EtiquetaProducto> etiquetas = leerDiccionario(datos).stream().map(EtiquetaProducto::fromValor).toList();
+        List<SexoProducto> sexos = leerDiccionario(datos).stream().map(SexoProducto::fromValor).toList();
+
+        int n = datos.getInt();
+        ProductoCardResponse[] productos = new ProductoCardResponse[n];
+        for (int i = 0; i < n; i++) {
+            productos[i] = new ProductoCardResponse();
+            productos[i].setId(datos.getLong());
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setPrecio(BigDecimal.valueOf(datos.getLong(), 2));
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setStock(datos.getInt());
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setCategoriaId(datos.getLong());
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setFechaCreacion(deMicros(datos.getLong()));
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setMarca(deDiccionario(marcas, datos.getInt()));
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setEtiqueta(deDiccionario(etiquetas, datos.get()));
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setSexo(deDiccionario(sexos, datos.get()));
+        }
+        for (int i = 0; i < n; i++) {
+            byte flags = datos.get();
+            productos[i].setActivo((flags & 1) != 0);
+            productos[i].setIsFeatured((flags & 2) != 0);
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setNombre(leerCadena(datos));
+        }
+        for (int i = 0; i < n; i++) {
+            productos[i].setImagenUrl(leerCadena(datos));
+        }
+        if (datos.hasRemaining()) {
+            throw new IOException("Datos sobrantes en el snapshot");
+        }
+        return new Contenido(versionCambios, versionCategorias, categorias, List.of(productos));
+    }
+
+    /* valores distintos en orden de aparición; null no se guarda (índice -1) */
+    private static final class Diccionario {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> valores = new ArrayList<>();
+
+        int indice(String valor) {
+            if (valor == null) {
+                return -1;
+            }
+            return indices.computeIfAbsent(valor, v -> {
+                valores.add(v);
+                return valores.size() - 1;
+            });
+        }
+
+        void escribir(DataOutputStream datos) throws IOException {
+            datos.writeInt(valores.size());
+            for (String valor : valores) {
+                escribirCadena(datos, valor);
+            }
+        }
+    }
+
+    private static List<String> leerDiccionario(ByteBuffer datos) {
+        int n = datos.getInt();
+        List<String> valores = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            valores.add(leerCadena(datos));
+        }
+        return valores;
+    }
+
+    private static <T> T deDiccionario(List<T> diccionario, int indice) {
+        return indice < 0 ? null : diccionario.get(indice);
+    }
+
+    private static void escribirCadena(DataOutputStream datos, String valor) throws IOException {
+        if (valor == null) {
+            datos.writeInt(-1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        datos.writeInt(bytes.length);
+        datos.write(bytes);
+    }
+
+    private static String leerCadena(ByteBuffer datos) {
+        int longitud = datos.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        datos.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long aMicros(LocalDateTime fecha) {
+        if (fecha == null) {
+            return SIN_FECHA;
+        }
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + fecha.getNano() / 1_000;
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        if (micros == SIN_FECHA) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,205 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.events.CategoriaModificadaEvent;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.events.UsuarioModificadoEvent;
+import com.web.prime_drip_club.repository.CacheVersionRepository;
+import com.web.prime_drip_club.repository.ProductoCambioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Coherencia de las cachés en memoria entre nodos a través de la tabla
+ * cache_version.
+ * <p>
+ * Los servicios que modifican productos o categorías incrementan la versión
+ * de la región en la misma transacción que el cambio. Cada nodo lee las
+ * versiones periódicamente y, si alguna avanzó por escrituras de otro nodo,
+ * publica el evento de recarga completa de esa región; las escrituras
+ * propias ya se aplicaron con sus eventos y no provocan recarga. Los
+ * productos no se recargan enteros: se leen de producto_cambio los cambios
+ * posteriores al último aplicado y se publica un evento con esos productos;
+ * solo un historial compactado o una carga masiva obligan a recargar. La región
+ * 'usuario' solo la incrementan cambios hechos fuera de la aplicación
+ * (roles, activo o contraseña) y vacía la caché de usuarios de cada nodo.
+ * </p>
+ * Métrica: cache.invalidaciones.remotas{region}.
+ */
+@Slf4j
+@Component
+public class CoherenciaCache {
+
+    public enum Region {
+        PRODUCTOS("producto"),
+        CATEGORIAS("categoria"),
+        USUARIOS("usuario");
+
+        private final String clave;
+
+        Region(String clave) {
+            this.clave = clave;
+        }
+    }
+
+    private final CacheVersionRepository cacheVersionRepository;
+    private final ProductoCambioRepository productoCambioRepository;
+    private final CatalogoProductos catalogoProductos;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /* última versión conocida por región; null hasta la primera lectura */
+    private final Map<Region, Long> conocidas = new EnumMap<>(Region.class);
+    /* versiones confirmadas por escrituras de este nodo aún no vistas en la tabla */
+    private final Map<Region, NavigableSet<Long>> propias = new EnumMap<>(Region.class);
+    private final Map<Region, Counter> invalidaciones = new EnumMap<>(Region.class);
+    /* versión de producto_cambio hasta la que ya se publicaron los cambios; null si no se conoce */
+    private Long versionCambios;
+
+    public CoherenciaCache(CacheVersionRepository cacheVersionRepository,
+                           ProductoCambioRepository productoCambioRepository,
+                           CatalogoProductos catalogoProductos,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
+        this.cacheVersionRepository = cacheVersionRepository;
+        this.productoCambioRepository = productoCambioRepository;
+        this.catalogoProductos = catalogoProductos;
+        this.eventPublisher = eventPublisher;
+        for (Region region : Region.values()) {
+            propias.put(region, new ConcurrentSkipListSet<>());
+            invalidaciones.put(region, Counter.builder("cache.invalidaciones.remotas")
+                    .tag("region", region.clave)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Incrementa la versión de la región. Si hay transacción, la versión
+     * solo cuenta como propia después del commit.
+     */
+    public void registrarCambio(Region region) {
+        long version = cacheVersionRepository.incrementar(region.clave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    propias.get(region).add(version);
+                }
+            });
+        } else {
+            propias.get(region).add(version);
+        }
+    }
+
+    /**
+     * Lee las versiones antes de que las cachés se carguen al arrancar, para
+     * que ningún cambio remoto posterior a la carga pase desapercibido.
+     */
+    @PostConstruct
+    public void leerVersionesIniciales() {
+        try {
+            Map<String, Long> versiones = cacheVersionRepository.findAll();
+            long cambios = productoCambioRepository.versionActual();
+            synchronized (this) {
+                for (Region region : Region.values()) {
+                    conocidas.put(region, versiones.get(region.clave));
+                }
+                versionCambios = cambios;
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron leer las versiones de caché: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.version.intervalo:PT2S}")
+    public synchronized void sondear() {
+        Map<String, Long> versiones;
+        try {
+            versiones = cacheVersionRepository.findAll();
+        } catch (Exception e) {
+            log.warn("No se pudieron leer las versiones de caché: {}", e.getMessage());
+            return;
+        }
+        for (Region region : Region.values()) {
+            Long actual = versiones.get(region.clave);
+            if (actual == null) {
+                continue;
+            }
+            Long conocida = conocidas.get(region);
+            if (conocida != null && actual <= conocida) {
+                conocidas.put(region, actual);
+                continue;
+            }
+            // sin versión previa no se sabe qué se perdió: se recarga por seguridad
+            if (conocida == null || !soloPropias(region, conocida, actual)) {
+                try {
+                    invalidar(region, conocida == null);
+                } catch (Exception e) {
+                    // la versión conocida no avanza: se reintenta en el próximo sondeo
+                    log.warn("No se pudieron aplicar los cambios remotos de {}: {}", region, e.getMessage());
+                    continue;
+                }
+            }
+            conocidas.put(region, actual);
+            propias.get(region).headSet(actual, true).clear();
+        }
+    }
+
+    /* true si todas las versiones en (desde, hasta] las generó este nodo */
+    private boolean soloPropias(Region region, long desde, long hasta) {
+        return propias.get(region).subSet(desde, false, hasta, true).size() == hasta - desde;
+    }
+
+    private void invalidar(Region region, boolean completa) {
+        log.debug("Región de caché {} modificada por otro nodo", region);
+        invalidaciones.get(region).increment();
+        switch (region) {
+            case PRODUCTOS -> {
+                if (completa || versionCambios == null) {
+                    recargarProductos();
+                } else {
+                    publicarCambiosProductos();
+                }
+            }
+            case CATEGORIAS -> eventPublisher.publishEvent(CategoriaModificadaEvent.recargarTodo());
+            case USUARIOS -> eventPublisher.publishEvent(UsuarioModificadoEvent.recargarTodo());
+        }
+    }
+
+    /**
+     * Publica, por lotes, los productos cambiados desde la última versión
+     * aplicada. Incluye los cambios propios del rango (aplicarlos otra vez no
+     * cambia nada) porque producto_cambio no distingue el nodo de origen.
+     */
+    private void publicarCambiosProductos() {
+        CatalogoProductos.LoteCambios lote;
+        do {
+            lote = catalogoProductos.leerCambios(versionCambios);
+            if (lote == null) {
+                recargarProductos();
+                return;
+            }
+            if (!lote.vacio()) {
+                eventPublisher.publishEvent(new ProductoModificadoEvent(lote.guardados(), lote.eliminados(), false));
+            }
+            versionCambios = lote.hasta();
+        } while (!lote.completo());
+    }
+
+    private void recargarProductos() {
+        // la versión ANTES de recargar: lo posterior lo traerá el siguiente lote
+        long version = productoCambioRepository.versionActual();
+        eventPublisher.publishEvent(ProductoModificadoEvent.recargarTodo());
+        versionCambios = version;
+    }
+}
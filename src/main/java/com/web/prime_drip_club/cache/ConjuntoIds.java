@@ -0,0 +1,173 @@
+package com.web.prime_drip_club.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bitset de los IDs existentes de una tabla con AUTO_INCREMENT.
+ * <p>
+ * Como los IDs son densos, un bit por ID ocupa menos que un filtro de
+ * Bloom y no da falsos positivos por colisión: los únicos "quizá" erróneos
+ * son filas borradas por otro nodo. Solo se afirma que un ID no existe si
+ * es menor o igual que el límite; por encima la respuesta es siempre
+ * "quizá", porque otro nodo pudo haberlo insertado.
+ * </p>
+ * <p>
+ * El límite no es el máximo leído: AUTO_INCREMENT reparte los IDs al
+ * insertar pero las transacciones confirman en cualquier orden, así que
+ * puede haber huecos bajo el máximo que se llenan después. Se queda en el
+ * menor entre el máximo menos un margen y el máximo de la carga anterior
+ * (un hueco más antiguo que una carga entera es un borrado, no una
+ * transacción abierta). Los IDs que este nodo inserta mientras se lee la
+ * tabla se suman a la carga.
+ * </p>
+ * El bitset no se modifica: cada cambio publica una copia (copy-on-write),
+ * así que las consultas leen sin bloqueos.
+ */
+final class ConjuntoIds {
+
+    private record Estado(BitSet ids, long limite) {
+    }
+
+    private volatile Estado estado;
+
+    /* máximo leído en la carga anterior; Long.MAX_VALUE antes de la primera */
+    private long maximoAnterior = Long.MAX_VALUE;
+    /* IDs agregados desde que empezó la lectura en curso; null si no hay ninguna */
+    private Set<Long> agregadosDuranteCarga;
+
+    private final long margen;
+    private final Counter descartadas;
+    private final Counter posibles;
+    private final AtomicLong falsosPositivos = new AtomicLong();
+
+    /**
+     * @param margen IDs bajo el máximo leído que no se dan por inexistentes;
+     *               debe cubrir las inserciones que pueden estar sin confirmar
+     *               a la vez (un lote de importación, por ejemplo)
+     */
+    ConjuntoIds(String entidad, long margen, MeterRegistry meterRegistry) {
+        this.margen = margen;
+        this.descartadas = Counter.builder("catalogo.ids.consultas")
+                .tag("entidad", entidad)
+                .tag("resultado", "descartada")
+                .register(meterRegistry);
+        this.posibles = Counter.builder("catalogo.ids.consultas")
+                .tag("entidad", entidad)
+                .tag("resultado", "posible")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalogo.ids.falsos_positivos", falsosPositivos, AtomicLong::doubleValue)
+                .tag("entidad", entidad)
+                .register(meterRegistry);
+        Gauge.builder("catalogo.ids.tasa_falsos_positivos", this, ConjuntoIds::tasaFalsosPositivos)
+                .tag("entidad", entidad)
+                .description("Consultas que el bitset dejó pasar y la BD no encontró, sobre las que dejó pasar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true solo si el ID seguro que no existe
+     */
+    boolean descartado(Long id) {
+        Estado actual = estado;
+        if (actual == null || id == null) {
+            posibles.increment();
+            return false;
+        }
+        boolean descartado = id <= 0 || (id <= actual.limite() && !actual.ids().get(id.intValue()));
+        (descartado ? descartadas : posibles).increment();
+        return descartado;
+    }
+
+    /**
+     * La BD no encontró un ID que el bitset dejó pasar. Si estaba por debajo
+     * del límite se olvida, para que la próxima consulta no llegue a la BD.
+     */
+    synchronized void noEncontrado(Long id) {
+        falsosPositivos.incrementAndGet();
+        Estado actual = estado;
+        if (actual != null && id > 0 && id <= actual.limite() && actual.ids().get(id.intValue())) {
+            BitSet copia = (BitSet) actual.ids().clone();
+            copia.clear(id.intValue());
+            estado = new Estado(copia, actual.limite());
+        }
+    }
+
+    /**
+     * Marca el comienzo de una lectura de la tabla: los IDs que lleguen por
+     * {@link #aplicar} desde ahora se sumarán a la siguiente {@link #cargar}.
+     */
+    synchronized void iniciarCarga() {
+        agregadosDuranteCarga = new HashSet<>();
+    }
+
+    /**
+     * Reemplaza el bitset por los IDs leídos de la BD más los agregados
+     * desde {@link #iniciarCarga}.
+     */
+    synchronized void cargar(Collection<Long> ids) {
+        Set<Long> agregados = agregadosDuranteCarga != null ? agregadosDuranteCarga : Set.of();
+        agregadosDuranteCarga = null;
+        BitSet bits = new BitSet();
+        long maximo = 0;
+        for (Long id : ids) {
+            if (id > Integer.MAX_VALUE) {
+                // fuera del rango de BitSet: sin filtro, todas las consultas van a la BD
+                estado = null;
+                return;
+            }
+            bits.set(id.intValue());
+            maximo = Math.max(maximo, id);
+        }
+        for (Long id : agregados) {
+            if (id <= Integer.MAX_VALUE) {
+                bits.set(id.intValue());
+            }
+        }
+        long limite = Math.max(0, Math.min(maximo - margen, maximoAnterior));
+        maximoAnterior = maximo;
+        estado = new Estado(bits, limite);
+    }
+
+    synchronized void aplicar(Collection<Long> agregados, Collection<Long> quitados) {
+        if (agregadosDuranteCarga != null) {
+            agregados.stream()
+                    .filter(id -> id != null && id > 0)
+                    .forEach(agregadosDuranteCarga::add);
+        }
+        Estado actual = estado;
+        if (actual == null) {
+            return;
+        }
+        BitSet copia = null;
+        for (Long id : agregados) {
+            if (id != null && id > 0 && id <= Integer.MAX_VALUE && !actual.ids().get(id.intValue())) {
+                copia = copia != null ? copia : (BitSet) actual.ids().clone();
+                copia.set(id.intValue());
+            }
+        }
+        for (Long id : quitados) {
+            if (id != null && id > 0 && id <= Integer.MAX_VALUE && actual.ids().get(id.intValue())) {
+                copia = copia != null ? copia : (BitSet) actual.ids().clone();
+                copia.clear(id.intValue());
+            }
+        }
+        if (copia != null) {
+            // el límite no sube: un ID nuevo de este nodo no prueba nada sobre los de otros
+            estado = new Estado(copia, actual.limite());
+        }
+    }
+
+    private double tasaFalsosPositivos() {
+        double total = posibles.count();
+        return total == 0 ? 0 : falsosPositivos.get() / total;
+    }
+}
@@ -0,0 +1,81 @@
+package com.web.prime_drip_club.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa consultas idénticas concurrentes (single-flight): mientras una
+ * consulta por una clave está en curso, las demás peticiones por la misma
+ * clave esperan su resultado en lugar de lanzar otra contra la BD.
+ * <p>
+ * No es una caché: en cuanto la consulta termina la clave se libera y la
+ * siguiente petición vuelve a consultar. Los errores también se comparten
+ * con quienes estaban esperando. El resultado puede ser null.
+ * </p>
+ * Métricas: consultas.compartidas{consulta, resultado=ejecutada|colapsada}.
+ *
+ * @param <K> clave de la consulta (equals/hashCode)
+ * @param <V> resultado
+ */
+public class ConsultaCompartida<K, V> {
+
+    private final Map<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+    private final Counter ejecutadas;
+    private final Counter colapsadas;
+
+    public ConsultaCompartida(String nombre, MeterRegistry meterRegistry) {
+        this.ejecutadas = Counter.builder("consultas.compartidas")
+                .tag("consulta", nombre)
+                .tag("resultado", "ejecutada")
+                .register(meterRegistry);
+        this.colapsadas = Counter.builder("consultas.compartidas")
+                .tag("consulta", nombre)
+                .tag("resultado", "colapsada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la consulta o, si ya hay una en curso para la clave, espera
+     * su resultado.
+     */
+    public V ejecutar(K clave, Supplier<V> consulta) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            colapsadas.increment();
+            return esperar(existente);
+        }
+        ejecutadas.increment();
+        try {
+            V resultado = consulta.get();
+            propia.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    private V esperar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            // se relanza la excepción original para que el manejador global la trate igual
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * IDs existentes de productos, para responder 404 a IDs que seguro no
+ * existen sin pedir una conexión al pool. Las categorías no lo necesitan:
+ * RegistroCategorias las tiene todas en memoria.
+ * <p>
+ * Se carga al arrancar, se mantiene con los eventos de ProductoService y
+ * se vuelve a cargar periódicamente para recoger los borrados hechos por
+ * otros nodos. Mientras no se ha cargado, todos los IDs se consideran
+ * posibles.
+ * </p>
+ * Métricas: catalogo.ids.consultas{resultado=descartada|posible},
+ * catalogo.ids.falsos_positivos y catalogo.ids.tasa_falsos_positivos.
+ */
+@Slf4j
+@Component
+public class IdsExistentes {
+
+    private final ProductoRepository productoRepository;
+    private final ConjuntoIds productos;
+
+    public IdsExistentes(ProductoRepository productoRepository, MeterRegistry meterRegistry,
+                         @Value("${catalogo.ids.margen:1000}") long margen) {
+        this.productoRepository = productoRepository;
+        this.productos = new ConjuntoIds("producto", margen, meterRegistry);
+    }
+
+    public boolean productoDescartado(Long id) {
+        return productos.descartado(id);
+    }
+
+    public void productoNoEncontrado(Long id) {
+        productos.noEncontrado(id);
+    }
+
+    /**
+     * Vuelve a leer los IDs de la tabla. Los productos que este nodo crea
+     * mientras tanto se suman a la carga; los de otros nodos quedan por
+     * encima del límite salvo que su transacción lleve abierta más que el
+     * margen de IDs y que una recarga entera, en cuyo caso podrían
+     * descartarse hasta la siguiente recarga.
+     */
+    public synchronized void recargar() {
+        productos.iniciarCarga();
+        productos.cargar(productoRepository.findIds());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            // Sin carga no se descarta ningún ID; lo reintenta la recarga periódica
+            log.warn("No se pudieron cargar los IDs existentes: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${catalogo.ids.recarga:PT10M}", fixedDelayString = "${catalogo.ids.recarga:PT10M}")
+    public void recargarPeriodicamente() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            log.warn("No se pudieron recargar los IDs existentes: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductoModificado(ProductoModificadoEvent event) {
+        if (event.recargaCompleta()) {
+            recargar();
+            return;
+        }
+        productos.aplicar(event.guardados().stream().map(Producto::getId).toList(), event.eliminados());
+    }
+}
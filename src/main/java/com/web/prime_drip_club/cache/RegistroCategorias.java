@@ -0,0 +1,198 @@
+package com.web.prime_drip_club.cache;
+
+import com.web.prime_drip_club.events.CategoriaModificadaEvent;
+import com.web.prime_drip_club.models.Categoria;
+import com.web.prime_drip_club.repository.CacheVersionRepository;
+import com.web.prime_drip_club.repository.CategoriaRepository;
+import com.web.prime_drip_club.search.Tokenizador;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registro en memoria de todas las categorías.
+ * <p>
+ * La tabla es pequeña y casi estática, así que se carga entera al arrancar
+ * y las lecturas (listado, consulta por ID, nombres de categoría de los
+ * productos y comprobación de nombres duplicados) no tocan MySQL. Cada
+ * cambio confirmado publica un registro nuevo de forma atómica.
+ * </p>
+ * Los nombres se comparan como la collation de MySQL (*_ai_ci): sin
+ * distinguir mayúsculas ni tildes y sin espacios en los extremos.
+ */
+@Slf4j
+@Component
+public class RegistroCategorias {
+
+    /*
+     * versionBd: versión de cache_version 'categoria' leída antes que los
+     * datos; todos los cambios hasta ella están incluidos. SIN_VERSION_BD si
+     * el registro lleva cambios aplicados sin poder releer la tabla.
+     */
+    private record Registro(long version, long versionBd, List<Categoria> todas, Map<Long, Categoria> porId,
+                            Map<String, Long> porNombre) {
+
+        static Registro de(long version, long versionBd, Collection<Categoria> categorias) {
+            Map<Long, Categoria> porId = new HashMap<>();
+            Map<String, Long> porNombre = new HashMap<>();
+            for (Categoria categoria : categorias) {
+                porId.put(categoria.getId(), categoria);
+                porNombre.putIfAbsent(claveNombre(categoria.getNombre()), categoria.getId());
+            }
+            // ordenadas por nombre, como CategoriaRepository.findAll
+            List<Categoria> todas = porId.values().stream()
+                    .sorted(Comparator.comparing(Categoria::getNombre, String.CASE_INSENSITIVE_ORDER))
+                    .toList();
+            return new Registro(version, versionBd, todas, Map.copyOf(porId), Map.copyOf(porNombre));
+        }
+    }
+
+    private static final String REGION = "categoria";
+    public static final long SIN_VERSION_BD = -1;
+
+    private final CategoriaRepository categoriaRepository;
+    private final CacheVersionRepository cacheVersionRepository;
+    private final AtomicReference<Registro> registro = new AtomicReference<>();
+
+    public RegistroCategorias(CategoriaRepository categoriaRepository,
+                              CacheVersionRepository cacheVersionRepository) {
+        this.categoriaRepository = categoriaRepository;
+        this.cacheVersionRepository = cacheVersionRepository;
+    }
+
+    /**
+     * Se incrementa con cada registro publicado; cambia en el mismo instante
+     * que los datos, por eso sirve de versión para el ETag de categorías.
+     */
+    public long version() {
+        return actual().version();
+    }
+
+    /**
+     * Versión de cache_version 'categoria' hasta la que el registro incluye
+     * todos los cambios (puede incluir también alguno posterior). Quien la
+     * guarde junto a {@link #todas()} debe leerla antes.
+     *
+     * @return {@link #SIN_VERSION_BD} si el registro no corresponde a
+     * ninguna versión de la BD
+     */
+    public long versionBd() {
+        return actual().versionBd();
+    }
+
+    public List<Categoria> todas() {
+        return actual().todas();
+    }
+
+    public Optional<Categoria> buscar(Long id) {
+        return Optional.ofNullable(actual().porId().get(id));
+    }
+
+    /**
+     * @return el nombre de la categoría, o null si no existe
+     */
+    public String nombre(Long id) {
+        Categoria categoria = id != null ? actual().porId().get(id) : null;
+        return categoria != null ? categoria.getNombre() : null;
+    }
+
+    /**
+     * @param exceptoId categoría que no cuenta como duplicado (la que se
+     *                  está actualizando), null para ninguna
+     */
+    public boolean existeNombre(String nombre, Long exceptoId) {
+        Long id = actual().porNombre().get(claveNombre(nombre));
+        return id != null && !Objects.equals(id, exceptoId);
+    }
+
+    public synchronized void recargar() {
+        Registro anterior = registro.get();
+        long versionBd = cacheVersionRepository.findAll().getOrDefault(REGION, 0L);
+        registro.set(Registro.de(siguienteVersion(anterior), versionBd, categoriaRepository.findAll()));
+    }
+
+    /**
+     * Publica como primer registro las categorías del archivo de snapshot.
+     *
+     * @return false si el registro ya estaba cargado (no se reemplaza)
+     */
+    public synchronized boolean instalar(Collection<Categoria> categorias, long versionBd) {
+        return registro.compareAndSet(null, Registro.de(1, versionBd, categorias));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        if (registro.get() != null) {
+            return;
+        }
+        try {
+            recargar();
+            log.info("Registro de categorías cargado: {} categorías", registro.get().todas().size());
+        } catch (Exception e) {
+            // Se reintentará en la primera consulta
+            log.warn("No se pudo cargar el registro de categorías: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relee la tabla tras cada cambio confirmado, para que la versión de la
+     * BD avance junto con los datos (de ella sale el ETag). Si no se puede,
+     * aplica el cambio del evento y el registro queda sin versión de la BD
+     * hasta la siguiente recarga.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoriaModificada(CategoriaModificadaEvent event) {
+        Registro anterior = registro.get();
+        try {
+            recargar();
+            return;
+        } catch (Exception e) {
+            if (anterior == null || event.recargaCompleta()) {
+                throw e;
+            }
+            log.warn("No se pudo recargar el registro de categorías, se aplica el cambio del evento: {}",
+                    e.getMessage());
+        }
+        Map<Long, Categoria> copia = new HashMap<>(anterior.porId());
+        if (event.eliminadaId() != null) {
+            copia.remove(event.eliminadaId());
+        }
+        if (event.guardada() != null) {
+            copia.put(event.guardada().getId(), event.guardada());
+        }
+        registro.set(Registro.de(siguienteVersion(anterior), SIN_VERSION_BD, copia.values()));
+    }
+
+    private Registro actual() {
+        Registro actual = registro.get();
+        return actual != null ? actual : cargarSiFalta();
+    }
+
+    private synchronized Registro cargarSiFalta() {
+        Registro actual = registro.get();
+        if (actual == null) {
+            recargar();
+            actual = registro.get();
+        }
+        return actual;
+    }
+
+    private static long siguienteVersion(Registro anterior) {
+        return anterior != null ? anterior.version() + 1 : 1;
+    }
+
+    private static String claveNombre(String nombre) {
+        return nombre == null ? "" : Tokenizador.normalizar(nombre.strip());
+    }
+}
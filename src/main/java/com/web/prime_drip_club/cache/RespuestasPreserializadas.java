@@ -0,0 +1,175 @@
+package com.web.prime_drip_club.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas públicas más consultadas guardadas ya serializadas a JSON
+ * (y comprimidas con gzip), listas para copiarse a la salida sin pasar
+ * por Jackson.
+ * <p>
+ * Cada cuerpo va asociado al ETag de la versión con la que se generó y
+ * solo se regenera cuando la versión cambia. Como el ETag se lee antes
+ * que los datos, un cuerpo nunca es más viejo que su ETag.
+ * </p>
+ * Métrica: catalogo.respuestas.serializaciones{clave}.
+ */
+@Component
+public class RespuestasPreserializadas {
+
+    public enum Clave {
+        PRODUCTOS_ACTIVOS,
+        PRODUCTOS_DESTACADOS,
+        CATEGORIAS
+    }
+
+    /**
+     * @param etag ETag de la versión serializada
+     * @param json cuerpo sin comprimir
+     * @param gzip el mismo cuerpo comprimido con gzip
+     */
+    public record Cuerpo(String etag, byte[] json, byte[] gzip) {
+    }
+
+    private static final CacheControl REVALIDAR = CacheControl.noCache();
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<Clave, Generacion> cuerpos = new ConcurrentHashMap<>();
+
+    /* serialización de una versión, compartida por las peticiones que la piden a la vez */
+    private record Generacion(String etag, FutureTask<Cuerpo> tarea) {
+    }
+
+    public RespuestasPreserializadas(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Cuerpo vigente para la clave; si se generó con otra versión lo
+     * vuelve a serializar con los datos que entrega el generador.
+     */
+    public Cuerpo obtener(Clave clave, String etag, Supplier<?> generador) {
+        Generacion actual = cuerpos.get(clave);
+        if (actual == null || !actual.etag().equals(etag)) {
+            Generacion nueva = new Generacion(etag, new FutureTask<>(() -> serializar(clave, etag, generador.get())));
+            // compute solo decide quién genera: una sola generación por clave y versión
+            actual = cuerpos.compute(clave, (c, previo) -> previo != null && previo.etag().equals(etag) ? previo : nueva);
+            if (actual == nueva) {
+                // fuera del lock del mapa: el generador puede tardar o consultar la BD
+                nueva.tarea().run();
+            }
+        }
+        return esperar(clave, actual);
+    }
+
+    private Cuerpo esperar(Clave clave, Generacion generacion) {
+        try {
+            return generacion.tarea().get();
+        } catch (ExecutionException e) {
+            // no se guarda el fallo: la siguiente petición vuelve a intentarlo
+            cuerpos.remove(clave, generacion);
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("No se pudo generar la respuesta " + clave, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando la respuesta " + clave, e);
+        }
+    }
+
+    /**
+     * Responde el cuerpo preserializado: 304 si el ETag del cliente sigue
+     * vigente, la variante gzip si el cliente la acepta y JSON plano si no.
+     */
+    public ResponseEntity<byte[]> responder(Clave clave, String etag, WebRequest request, Supplier<?> generador) {
+        boolean gzip = aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // cada codificación es una representación distinta y necesita su propio ETag fuerte
+        String etagVariante = gzip ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+        if (request.checkNotModified(etagVariante)) {
+            return null;
+        }
+        Cuerpo cuerpo = obtener(clave, etag, generador);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(REVALIDAR)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cuerpo.gzip());
+        }
+        return respuesta.body(cuerpo.json());
+    }
+
+    /**
+     * Interpreta Accept-Encoding con sus pesos: "gzip;q=0" rechaza gzip
+     * explícitamente y "*" lo acepta si gzip no aparece por su nombre.
+     */
+    static boolean aceptaGzip(String aceptadas) {
+        if (aceptadas == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double comodin = null;
+        for (String codificacion : aceptadas.split(",")) {
+            String[] partes = codificacion.split(";");
+            String nombre = partes[0].strip().toLowerCase(Locale.ROOT);
+            double peso = 1.0;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].strip();
+                if (parametro.length() > 2 && (parametro.startsWith("q=") || parametro.startsWith("Q="))) {
+                    try {
+                        peso = Double.parseDouble(parametro.substring(2).strip());
+                    } catch (NumberFormatException e) {
+                        peso = 0;
+                    }
+                }
+            }
+            if (nombre.equals("gzip") || nombre.equals("x-gzip")) {
+                gzip = gzip != null ? Math.max(gzip, peso) : peso;
+            } else if (nombre.equals("*")) {
+                comodin = peso;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return comodin != null && comodin > 0;
+    }
+
+    private Cuerpo serializar(Clave clave, String etag, Object respuesta) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(respuesta);
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(json);
+            }
+            meterRegistry.counter("catalogo.respuestas.serializaciones", "clave", clave.name()).increment();
+            return new Cuerpo(etag, json, comprimido.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta " + clave, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.web.prime_drip_club.cache;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Versiones de contenido del catálogo usadas como ETag fuerte.
+ * <p>
+ * Los ETag salen de versiones de la BD: la de producto_cambio hasta la que
+ * el snapshot incluye todos los cambios y la de cache_version 'categoria'
+ * del registro. Así todos los nodos, y el mismo nodo tras reiniciarse, dan
+ * el mismo ETag al mismo contenido y una caché compartida no se vacía con
+ * cada despliegue. El ETag se lee ANTES que los datos, así que nunca queda
+ * asociado a datos más viejos que él; como mucho a algún cambio posterior
+ * que la siguiente versión ya recoge.
+ * </p>
+ * Si el registro de categorías no corresponde a ninguna versión de la BD
+ * (no se pudo releer tras un cambio), su parte del ETag usa la versión
+ * local con un prefijo de época (instante de arranque), que ningún otro
+ * nodo puede repetir.
+ */
+@Component
+public class VersionesCatalogo {
+
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final CatalogoProductos catalogoProductos;
+    private final RegistroCategorias registroCategorias;
+
+    public VersionesCatalogo(CatalogoProductos catalogoProductos, RegistroCategorias registroCategorias) {
+        this.catalogoProductos = catalogoProductos;
+        this.registroCategorias = registroCategorias;
+    }
+
+    /**
+     * Versión local del snapshot de productos, para cachés de este nodo;
+     * cambia con cada snapshot publicado.
+     */
+    public long versionProductos() {
+        return catalogoProductos.snapshot().version();
+    }
+
+    /**
+     * Versión local del registro de categorías, para cachés de este nodo.
+     */
+    public long versionCategorias() {
+        return registroCategorias.version();
+    }
+
+    public String etagProductos() {
+        return "\"p-" + productos() + "\"";
+    }
+
+    /**
+     * Detalle de un producto: incluye el nombre de su categoría, así que
+     * cambia también cuando cambian las categorías.
+     */
+    public String etagProductoDetalle() {
+        return "\"pd-" + productos() + "-" + categorias() + "\"";
+    }
+
+    /**
+     * Rails por categoría: dependen de los productos, de los nombres de las
+     * categorías y del n pedido.
+     */
+    public String etagRails(Integer n) {
+        return "\"r-" + n + "-" + productos() + "-" + categorias() + "\"";
+    }
+
+    public String etagCategorias() {
+        return "\"c-" + categorias() + "\"";
+    }
+
+    private long productos() {
+        return catalogoProductos.snapshot().versionCambios();
+    }
+
+    private String categorias() {
+        long versionBd = registroCategorias.versionBd();
+        return versionBd != RegistroCategorias.SIN_VERSION_BD
+                ? Long.toString(versionBd)
+                : epoca + "." + registroCategorias.version();
+    }
+}
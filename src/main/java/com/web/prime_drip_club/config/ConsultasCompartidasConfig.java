@@ -0,0 +1,28 @@
+package com.web.prime_drip_club.config;
+
+import com.web.prime_drip_club.cache.ConsultaCompartida;
+import com.web.prime_drip_club.dto.carrito.CarritoResponse;
+import com.web.prime_drip_club.models.Producto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Consultas de lectura calientes que se agrupan cuando llegan a la vez
+ * (por ejemplo, miles de visitas al mismo producto al abrir un drop).
+ * Los servicios las reciben por tipo genérico.
+ */
+@Configuration
+public class ConsultasCompartidasConfig {
+
+    @Bean
+    public ConsultaCompartida<Long, Producto> productoPorId(MeterRegistry meterRegistry) {
+        return new ConsultaCompartida<>("producto", meterRegistry);
+    }
+
+    /* clave: carritoId|usuarioId|sessionId */
+    @Bean
+    public ConsultaCompartida<String, CarritoResponse> carrito(MeterRegistry meterRegistry) {
+        return new ConsultaCompartida<>("carrito", meterRegistry);
+    }
+}
@@ -54,12 +54,14 @@ public class CorsConfig implements WebMvcConfigurer {
                 "Content-Type",
                 "Accept",
                 "Origin",
-                "X-Requested-With"));
+                "X-Requested-With",
+                "If-None-Match"));
 
         // Headers expuestos - permite que el frontend acceda a estos headers
         configuration.setExposedHeaders(Arrays.asList(
                 "Authorization",
-                "Content-Type"));
+                "Content-Type",
+                "ETag"));
 
         // Permite el envío de cookies y credenciales
         configuration.setAllowCredentials(true);
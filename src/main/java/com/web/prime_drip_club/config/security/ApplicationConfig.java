@@ -1,38 +1,24 @@
 package com.web.prime_drip_club.config.security;
 
-import java.util.List;
-
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import com.web.prime_drip_club.models.Usuario;
-import com.web.prime_drip_club.repository.UsuarioRepository;
-import com.web.prime_drip_club.repository.UsuarioRolRepository;
-
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UsuarioRepository usuarioRepository;
-    private final UsuarioRolRepository usuarioRolRepository;
+    private final CacheUsuarios cacheUsuarios;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return email -> {
-            Usuario usuario = usuarioRepository.findByEmail(email)
-                    .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
-
-            List<String> roles = usuarioRolRepository.getRolesByUsuarioId(usuario.getId());
-            return new UserDetailsImpl(usuario, roles);
-        };
+        return cacheUsuarios::obtener;
     }
 
     @Bean
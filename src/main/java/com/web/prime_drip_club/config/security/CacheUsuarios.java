@@ -0,0 +1,77 @@
+package com.web.prime_drip_club.config.security;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.web.prime_drip_club.events.UsuarioModificadoEvent;
+import com.web.prime_drip_club.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché de los UserDetails que el filtro JWT necesita en cada petición
+ * autenticada.
+ * <p>
+ * Acotada en tamaño y con expiración desde la carga. La aplicación no
+ * modifica roles, activo ni contraseña de usuarios existentes (el alta no
+ * cuenta: los emails inexistentes no se guardan), así que esos cambios se
+ * hacen en la BD y tardan como mucho el TTL en verse. Para que cuenten al
+ * momento, por ejemplo al desactivar un usuario o quitarle ADMIN, hay que
+ * subir la región 'usuario' de cache_version (ver V20): cada nodo vacía su
+ * caché en el siguiente sondeo de CoherenciaCache.
+ * </p>
+ * Métricas (CaffeineCacheMetrics, cache=usuarios): cache.gets{result=hit|miss},
+ * cache.evictions, cache.size y cache.load.duration.
+ */
+@Component
+public class CacheUsuarios {
+
+    private final UsuarioRepository usuarioRepository;
+    private final LoadingCache<String, UserDetailsImpl> usuarios;
+
+    public CacheUsuarios(UsuarioRepository usuarioRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${seguridad.usuarios.cache.maximo:10000}") long maximo,
+                         @Value("${seguridad.usuarios.cache.ttl:PT5M}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::cargar);
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "usuarios");
+    }
+
+    public UserDetailsImpl obtener(String email) {
+        UserDetailsImpl usuario = usuarios.get(clave(email));
+        if (usuario == null) {
+            throw new UsernameNotFoundException("Usuario no encontrado");
+        }
+        return usuario;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioModificado(UsuarioModificadoEvent event) {
+        usuarios.invalidateAll();
+    }
+
+    /* el email se compara sin distinguir mayúsculas, como la collation de MySQL */
+    private static String clave(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /* null no se guarda en la caché */
+    private UserDetailsImpl cargar(String email) {
+        return usuarioRepository.findConRolesByEmail(email)
+                .map(usuario -> new UserDetailsImpl(usuario.getUsuario(), usuario.getRoles()))
+                .orElse(null);
+    }
+}
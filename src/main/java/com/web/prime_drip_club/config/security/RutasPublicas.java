@@ -0,0 +1,39 @@
+package com.web.prime_drip_club.config.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Rutas con acceso anónimo (permitAll), compiladas una sola vez.
+ * <p>
+ * Las del catálogo son solo de lectura (GET) más la consulta por lote, que
+ * es un POST sin efectos; el carrito admite todos los métodos porque los
+ * invitados lo manejan por session_id. Crear, modificar o borrar productos
+ * y categorías nunca es público.
+ * </p>
+ * WebSecurityConfig las usa para autorizar y JwtAuthenticationFilter para
+ * no resolver el token en ellas salvo que algo llegue a consultar el
+ * usuario (p. ej. la regla hasRole("ADMIN") de GET /v1/productos/export,
+ * que coincide también con estas rutas). Tener una sola lista evita que
+ * ambos se desincronicen.
+ * /v1/auth/** no está aquí: el filtro ni siquiera lee el token en esas rutas.
+ */
+public final class RutasPublicas {
+
+    private static final PathPatternRequestMatcher.Builder RUTA = PathPatternRequestMatcher.withDefaults();
+
+    public static final RequestMatcher MATCHER = new OrRequestMatcher(
+            RUTA.matcher(HttpMethod.GET, "/uploads/**"), // Imágenes
+            RUTA.matcher(HttpMethod.GET, "/v1/categorias"), // Listar categorías
+            RUTA.matcher(HttpMethod.GET, "/v1/categorias/*"), // Ver categoría por ID y rails
+            RUTA.matcher(HttpMethod.GET, "/v1/productos/activos"), // Listar productos activos
+            RUTA.matcher(HttpMethod.GET, "/v1/productos/*"), // Ver producto por ID, búsqueda, filtros, cambios
+            RUTA.matcher(HttpMethod.POST, "/v1/productos/lote"), // Consulta de varios productos por ID
+            RUTA.matcher("/v1/carrito/**"), // Carrito (también anónimo por session_id)
+            RUTA.matcher("/v1/detalle-carrito/**")); // Detalle del carrito
+
+    private RutasPublicas() {
+    }
+}
@@ -0,0 +1,20 @@
+package com.web.prime_drip_club.config.security;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/**
+ * Activa los @PreAuthorize de los controladores, que hasta ahora no tenían
+ * efecto. Con esto quedan solo para ADMIN:
+ * <ul>
+ * <li>GET /v1/productos (listado con inactivos) y DELETE /v1/productos/{id}</li>
+ * <li>POST, PUT y DELETE de /v1/categorias</li>
+ * <li>todo /v1/upload (subida y borrado de imágenes)</li>
+ * </ul>
+ * Las reglas de WebSecurityConfig se evalúan antes; un @PreAuthorize nuevo
+ * en cualquier controlador pasa a aplicarse sin más configuración.
+ */
+@Configuration
+@EnableMethodSecurity
+public class SeguridadMetodosConfig {
+}
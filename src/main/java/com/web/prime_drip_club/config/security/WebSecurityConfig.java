@@ -2,6 +2,7 @@ package com.web.prime_drip_club.config.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -32,13 +33,14 @@ public class WebSecurityConfig {
                                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                                 .authorizeHttpRequests(req -> req
                                                 .requestMatchers("/v1/auth/**").permitAll()
-                                                .requestMatchers("/uploads/**").permitAll() // Permitir acceso público a imágenes
-                                                .requestMatchers("/v1/categorias").permitAll() // Listar categorías
-                                                .requestMatchers("/v1/categorias/*").permitAll() // Ver categoría por ID
-                                                .requestMatchers("/v1/productos/activos").permitAll() // Listar productos activos
-                                                .requestMatchers("/v1/productos/*").permitAll() // Ver producto por ID
-                                                .requestMatchers("/v1/carrito/**").permitAll() // Permitir acceso público a carrito
-                                                .requestMatchers("/v1/detalle-carrito/**").permitAll() // Permitir acceso público a detalle carrito
+                                                // Operaciones de administración bajo rutas públicas: van antes que estas
+                                                .requestMatchers(HttpMethod.POST, "/v1/productos/importar").hasRole("ADMIN") // Importación masiva
+                                                .requestMatchers(HttpMethod.GET, "/v1/productos/export").hasRole("ADMIN") // Exportación NDJSON
+                                                .requestMatchers(HttpMethod.PATCH, "/v1/productos").hasRole("ADMIN") // Actualización masiva
+                                                .requestMatchers(HttpMethod.POST, "/v1/productos").hasRole("ADMIN") // Crear producto
+                                                .requestMatchers(HttpMethod.PUT, "/v1/productos/*").hasRole("ADMIN") // Modificar producto
+                                                .requestMatchers(RutasPublicas.MATCHER).permitAll() // Imágenes, catálogo y carrito
+                                                .requestMatchers("/actuator/**").hasRole("ADMIN") // Métricas solo para administradores
                                                 .anyRequest().authenticated())
                                 .sessionManagement(sessionManager -> sessionManager
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -1,22 +1,46 @@
 package com.web.prime_drip_club.config.security.jwt;
 
 import java.io.IOException;
+import java.util.function.Supplier;
+
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.web.prime_drip_club.config.security.RutasPublicas;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Autentica las peticiones con el token Bearer.
+ * <p>
+ * En las rutas públicas el token no se verifica al pasar por el filtro: se
+ * deja un contexto diferido que lo resuelve la primera vez que alguien
+ * consulta el SecurityContext (un @PreAuthorize, por ejemplo). Así una
+ * cabecera Authorization caducada que el navegador sigue enviando no
+ * cuesta ni un parseo ni una consulta a la BD al ver el catálogo.
+ * </p>
+ * Un token inválido o de un usuario inexistente deja la petición como
+ * anónima; la autorización decide después si eso basta.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -24,6 +48,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
 
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
+            .getContextHolderStrategy();
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -42,28 +69,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = getTokenFromRequest(request);
-        final String email;
 
         if (token == null) {
             filterChain.doFilter(request, response);
             return;
         }
-        email = jwtUtils.getUsernameFromToken(token);
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+        Supplier<SecurityContext> anterior = securityContextHolderStrategy.getDeferredContext();
+        Supplier<SecurityContext> contexto = SingletonSupplier.of(() -> resolverContexto(anterior.get(), token, request));
+        if (RutasPublicas.MATCHER.matches(request)) {
+            securityContextHolderStrategy.setDeferredContext(contexto);
+        } else {
+            // la autorización lo va a pedir de todos modos
+            securityContextHolderStrategy.setContext(contexto.get());
+        }
+        filterChain.doFilter(request, response);
+
+    }
+
+    private SecurityContext resolverContexto(SecurityContext actual, String token, HttpServletRequest request) {
+        if (actual.getAuthentication() != null) {
+            return actual;
+        }
+        try {
+            final Claims claims = jwtUtils.parseToken(token);
+            final String email = claims.getSubject();
+            if (email == null) {
+                return actual;
+            }
             UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            if (jwtUtils.isTokenValid(token, userDetails)) {
+            if (jwtUtils.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
                         userDetails.getAuthorities());
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-
+                SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+                context.setAuthentication(authToken);
+                return context;
             }
+        } catch (JwtException | IllegalArgumentException | AuthenticationException e) {
+            log.debug("Token descartado, la petición sigue como anónima: {}", e.getMessage());
         }
-        filterChain.doFilter(request, response);
-
+        return actual;
     }
 
     private String getTokenFromRequest(HttpServletRequest request) {
@@ -1,15 +1,21 @@
 package com.web.prime_drip_club.controllers;
 
+import com.web.prime_drip_club.cache.RespuestasPreserializadas;
+import com.web.prime_drip_club.cache.RespuestasPreserializadas.Clave;
+import com.web.prime_drip_club.cache.VersionesCatalogo;
 import com.web.prime_drip_club.dto.categoria.CategoriaRequest;
 import com.web.prime_drip_club.dto.categoria.CategoriaResponse;
+import com.web.prime_drip_club.dto.categoria.RailCategoriaResponse;
 import com.web.prime_drip_club.dto.common.Response;
 import com.web.prime_drip_club.service.CategoriaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,22 +24,47 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoriaController {
 
+    /* el cliente guarda la respuesta pero la revalida siempre con If-None-Match */
+    private static final CacheControl REVALIDAR = CacheControl.noCache();
+
     private final CategoriaService categoriaService;
+    private final VersionesCatalogo versionesCatalogo;
+    private final RespuestasPreserializadas respuestasPreserializadas;
 
     /**
      * Obtener todas las categorías
-     * Endpoint público - Cualquier usuario puede ver las categorías
+     * Endpoint público - Cualquier usuario puede ver las categorías.
+     * Se sirve preserializado y responde 304 sin tocar la BD si el ETag
+     * del cliente sigue vigente
      */
     @GetMapping
-    public ResponseEntity<Response<List<CategoriaResponse>>> obtenerTodas() {
-        List<CategoriaResponse> categorias = categoriaService.obtenerTodas();
-        Response<List<CategoriaResponse>> response = Response.<List<CategoriaResponse>>builder()
+    public ResponseEntity<byte[]> obtenerTodas(WebRequest request) {
+        return respuestasPreserializadas.responder(Clave.CATEGORIAS,
+                versionesCatalogo.etagCategorias(), request, () -> Response.<List<CategoriaResponse>>builder()
+                        .responseCode(200)
+                        .success(true)
+                        .message("Categorías obtenidas exitosamente")
+                        .data(categoriaService.obtenerTodas())
+                        .build());
+    }
+
+    /**
+     * Los n productos activos más recientes de cada categoría (rails de la home)
+     * Endpoint público - revalidable con el ETag de la versión del catálogo
+     */
+    @GetMapping("/rails")
+    public ResponseEntity<Response<List<RailCategoriaResponse>>> obtenerRails(
+            @RequestParam(required = false) Integer n, WebRequest request) {
+        if (request.checkNotModified(versionesCatalogo.etagRails(n))) {
+            return null;
+        }
+        Response<List<RailCategoriaResponse>> response = Response.<List<RailCategoriaResponse>>builder()
                 .responseCode(200)
                 .success(true)
-                .message("Categorías obtenidas exitosamente")
-                .data(categorias)
+                .message("Rails de categorías obtenidos exitosamente")
+                .data(categoriaService.obtenerRails(n))
                 .build();
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(REVALIDAR).body(response);
     }
 
     /**
@@ -41,7 +72,10 @@ public class CategoriaController {
      * Endpoint público - Cualquier usuario puede ver una categoría específica
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Response<CategoriaResponse>> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<Response<CategoriaResponse>> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(versionesCatalogo.etagCategorias())) {
+            return null;
+        }
         CategoriaResponse categoria = categoriaService.obtenerPorId(id);
         Response<CategoriaResponse> response = Response.<CategoriaResponse>builder()
                 .responseCode(200)
@@ -49,7 +83,7 @@ public class CategoriaController {
                 .message("Categoría obtenida exitosamente")
                 .data(categoria)
                 .build();
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(REVALIDAR).body(response);
     }
 
     /**
@@ -1,16 +1,39 @@
 package com.web.prime_drip_club.controllers;
 
+import com.web.prime_drip_club.cache.RespuestasPreserializadas;
+import com.web.prime_drip_club.cache.RespuestasPreserializadas.Clave;
+import com.web.prime_drip_club.cache.VersionesCatalogo;
+import com.web.prime_drip_club.dto.common.Pagina;
+import com.web.prime_drip_club.dto.producto.ActualizacionMasivaRequest;
+import com.web.prime_drip_club.dto.producto.ActualizacionMasivaResponse;
+import com.web.prime_drip_club.dto.producto.CambiosProductosResponse;
+import com.web.prime_drip_club.dto.producto.FiltroProductosRequest;
+import com.web.prime_drip_club.dto.producto.FiltroProductosResponse;
+import com.web.prime_drip_club.dto.producto.ImportacionProductosResponse;
+import com.web.prime_drip_club.dto.producto.LoteProductosRequest;
+import com.web.prime_drip_club.dto.producto.LoteProductosResponse;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
 import com.web.prime_drip_club.dto.producto.ProductoRequest;
 import com.web.prime_drip_club.dto.producto.ProductoResponse;
 import com.web.prime_drip_club.dto.common.Response;
+import com.web.prime_drip_club.push.CanalProductos;
+import com.web.prime_drip_club.service.CambiosProductosService;
+import com.web.prime_drip_club.service.ImportacionProductosService;
 import com.web.prime_drip_club.service.ProductoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,53 +41,180 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductoController {
 
+    /* el cliente guarda la respuesta pero la revalida siempre con If-None-Match */
+    private static final CacheControl REVALIDAR = CacheControl.noCache();
+
     private final ProductoService productoService;
+    private final ImportacionProductosService importacionProductosService;
+    private final CambiosProductosService cambiosProductosService;
+    private final CanalProductos canalProductos;
+    private final VersionesCatalogo versionesCatalogo;
+    private final RespuestasPreserializadas respuestasPreserializadas;
 
+    /**
+     * Listado de administración. Con los parámetros cursor y/o size responde
+     * una página (keyset) y el campo nextCursor; sin ellos, la lista completa.
+     * Los GET del catálogo llevan ETag y responden 304 sin consultar nada
+     * si el del cliente (If-None-Match) coincide con la versión actual.
+     */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Response<List<ProductoResponse>>> obtenerTodos() {
-        List<ProductoResponse> productos = productoService.obtenerTodos();
+    public ResponseEntity<Response<List<ProductoCardResponse>>> obtenerTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        if (request.checkNotModified(versionesCatalogo.etagProductos())) {
+            return null;
+        }
+        if (cursor != null || size != null) {
+            return responderPagina(productoService.obtenerTodos(cursor, size),
+                    "Productos obtenidos exitosamente");
+        }
+        List<ProductoCardResponse> productos = productoService.obtenerTodos();
         if (productos.isEmpty()) {
-            Response<List<ProductoResponse>> response = Response.<List<ProductoResponse>>builder()
+            Response<List<ProductoCardResponse>> response = Response.<List<ProductoCardResponse>>builder()
                     .responseCode(200)
                     .success(true)
                     .message("No hay productos registrados")
                     .data(productos)
                     .build();
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(REVALIDAR).body(response);
         }
-        Response<List<ProductoResponse>> response = Response.<List<ProductoResponse>>builder()
+        Response<List<ProductoCardResponse>> response = Response.<List<ProductoCardResponse>>builder()
                 .responseCode(200)
                 .success(true)
                 .message("Productos obtenidos exitosamente")
                 .data(productos)
                 .build();
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(REVALIDAR).body(response);
     }
 
+    /**
+     * Listado público de productos activos, paginable igual que obtenerTodos.
+     * La lista completa se sirve preserializada (ver RespuestasPreserializadas)
+     */
     @GetMapping("/activos")
-    public ResponseEntity<Response<List<ProductoResponse>>> obtenerActivos() {
-        List<ProductoResponse> productos = productoService.obtenerActivos();
-        if (productos.isEmpty()) {
-            Response<List<ProductoResponse>> response = Response.<List<ProductoResponse>>builder()
-                    .responseCode(200)
-                    .success(true)
-                    .message("No hay productos disponibles")
-                    .data(productos)
-                    .build();
-            return ResponseEntity.ok(response);
+    public ResponseEntity<?> obtenerActivos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        String etag = versionesCatalogo.etagProductos();
+        if (cursor == null && size == null) {
+            return respuestasPreserializadas.responder(Clave.PRODUCTOS_ACTIVOS, etag, request, () -> {
+                List<ProductoCardResponse> productos = productoService.obtenerActivos();
+                return Response.<List<ProductoCardResponse>>builder()
+                        .responseCode(200)
+                        .success(true)
+                        .message(productos.isEmpty()
+                                ? "No hay productos disponibles"
+                                : "Productos activos obtenidos exitosamente")
+                        .data(productos)
+                        .build();
+            });
         }
-        Response<List<ProductoResponse>> response = Response.<List<ProductoResponse>>builder()
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return responderPagina(productoService.obtenerActivos(cursor, size),
+                "Productos activos obtenidos exitosamente");
+    }
+
+    /**
+     * Listado público de productos destacados, servido preserializado
+     */
+    @GetMapping("/destacados")
+    public ResponseEntity<byte[]> obtenerDestacados(WebRequest request) {
+        return respuestasPreserializadas.responder(Clave.PRODUCTOS_DESTACADOS,
+                versionesCatalogo.etagProductos(), request, () -> {
+                    List<ProductoCardResponse> productos = productoService.obtenerDestacados();
+                    return Response.<List<ProductoCardResponse>>builder()
+                            .responseCode(200)
+                            .success(true)
+                            .message(productos.isEmpty()
+                                    ? "No hay productos destacados"
+                                    : "Productos destacados obtenidos exitosamente")
+                            .data(productos)
+                            .build();
+                });
+    }
+
+    /**
+     * Búsqueda pública por texto (tolera tildes y errores de escritura)
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<Response<List<ProductoCardResponse>>> buscar(
+            @RequestParam("q") String consulta,
+            @RequestParam(required = false) Integer size) {
+        List<ProductoCardResponse> productos = productoService.buscar(consulta, size);
+        Response<List<ProductoCardResponse>> response = Response.<List<ProductoCardResponse>>builder()
                 .responseCode(200)
                 .success(true)
-                .message("Productos activos obtenidos exitosamente")
+                .message(productos.isEmpty() ? "No se encontraron productos" : "Productos encontrados")
                 .data(productos)
                 .build();
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Filtrado por facetas (categoría, sexo, etiqueta, marca, destacado y
+     * rango de precio) con orden, paginación y conteos por faceta
+     */
+    @GetMapping("/filtrar")
+    public ResponseEntity<Response<FiltroProductosResponse>> filtrar(FiltroProductosRequest filtro) {
+        FiltroProductosResponse resultado = productoService.filtrar(filtro);
+        Response<FiltroProductosResponse> response = Response.<FiltroProductosResponse>builder()
+                .responseCode(200)
+                .success(true)
+                .message("Productos filtrados exitosamente")
+                .data(resultado)
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cambios de productos activos desde la versión que el cliente ya tiene
+     * (altas/modificaciones y eliminados), o la señal de resincronizar
+     */
+    @GetMapping("/cambios")
+    public ResponseEntity<Response<CambiosProductosResponse>> cambios(@RequestParam(required = false) Long desde) {
+        CambiosProductosResponse cambios = cambiosProductosService.obtenerCambios(desde);
+        Response<CambiosProductosResponse> response = Response.<CambiosProductosResponse>builder()
+                .responseCode(200)
+                .success(true)
+                .message("Cambios de productos obtenidos exitosamente")
+                .data(cambios)
+                .build();
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+    }
+
+    /**
+     * Canal SSE público con los cambios de precio, stock y etiqueta de los
+     * productos indicados (ids=1,2,3), para no sondear GET /{id}
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam List<Long> ids) {
+        return canalProductos.suscribir(ids);
+    }
+
+    /**
+     * Exportación del catálogo completo en NDJSON (solo administradores).
+     * Se escribe en streaming desde la BD sin cargar todos los productos
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = productoService::exportar;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"productos.ndjson\"")
+                .body(cuerpo);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Response<ProductoResponse>> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<Response<ProductoResponse>> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(versionesCatalogo.etagProductoDetalle())) {
+            return null;
+        }
         ProductoResponse producto = productoService.obtenerPorId(id);
         Response<ProductoResponse> response = Response.<ProductoResponse>builder()
                 .responseCode(200)
@@ -72,6 +222,46 @@ public class ProductoController {
                 .message("Producto obtenido exitosamente")
                 .data(producto)
                 .build();
+        return ResponseEntity.ok().cacheControl(REVALIDAR).body(response);
+    }
+
+    /**
+     * Consulta de varios productos por ID (carrito, favoritos, checkout)
+     * con una sola ida a la BD; la respuesta respeta el orden pedido
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<Response<LoteProductosResponse>> obtenerLote(
+            @Valid @RequestBody LoteProductosRequest request) {
+        LoteProductosResponse lote = productoService.obtenerLote(request.getIds());
+        Response<LoteProductosResponse> response = Response.<LoteProductosResponse>builder()
+                .responseCode(200)
+                .success(true)
+                .message("Productos obtenidos exitosamente")
+                .data(lote)
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Importación masiva (solo administradores). El cuerpo es un CSV con
+     * cabecera o un NDJSON con un ProductoRequest por línea; se procesa
+     * en streaming e informa los errores por fila
+     */
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Response<ImportacionProductosResponse>> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) Integer lote,
+            InputStream cuerpo) {
+        ImportacionProductosResponse resultado = importacionProductosService.importar(
+                cuerpo, ImportacionProductosService.Formato.desde(contentType), lote);
+        Response<ImportacionProductosResponse> response = Response.<ImportacionProductosResponse>builder()
+                .responseCode(200)
+                .success(resultado.getConErrores() == 0)
+                .message("Importación completada: " + resultado.getInsertados() + " productos insertados, "
+                        + resultado.getConErrores() + " filas con errores")
+                .data(resultado)
+                .build();
         return ResponseEntity.ok(response);
     }
 
@@ -101,6 +291,24 @@ public class ProductoController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Actualización masiva de precio, stock y/o activo (solo administradores).
+     * Devuelve los IDs actualizados y los que no existen
+     */
+    @PatchMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Response<ActualizacionMasivaResponse>> actualizarMasivo(
+            @Valid @RequestBody ActualizacionMasivaRequest request) {
+        ActualizacionMasivaResponse resultado = productoService.actualizarMasivo(request);
+        Response<ActualizacionMasivaResponse> response = Response.<ActualizacionMasivaResponse>builder()
+                .responseCode(200)
+                .success(true)
+                .message("Productos actualizados exitosamente")
+                .data(resultado)
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Response<Boolean>> eliminar(@PathVariable Long id) {
@@ -113,4 +321,16 @@ public class ProductoController {
                 .build();
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
+
+    private ResponseEntity<Response<List<ProductoCardResponse>>> responderPagina(
+            Pagina<ProductoCardResponse> pagina, String mensaje) {
+        Response<List<ProductoCardResponse>> response = Response.<List<ProductoCardResponse>>builder()
+                .responseCode(200)
+                .success(true)
+                .message(mensaje)
+                .data(pagina.items())
+                .nextCursor(pagina.nextCursor())
+                .build();
+        return ResponseEntity.ok().cacheControl(REVALIDAR).body(response);
+    }
 }
@@ -0,0 +1,22 @@
+package com.web.prime_drip_club.dto.categoria;
+
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Productos activos más recientes de una categoría (rail de la home).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RailCategoriaResponse {
+    private Long categoriaId;
+    private String categoriaNombre;
+    private List<ProductoCardResponse> productos;
+}
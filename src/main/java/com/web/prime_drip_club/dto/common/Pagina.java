@@ -0,0 +1,12 @@
+package com.web.prime_drip_club.dto.common;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ *
+ * @param items       elementos de la página
+ * @param nextCursor  cursor para pedir la siguiente página, null si es la última
+ */
+public record Pagina<T>(List<T> items, String nextCursor) {
+}
@@ -1,5 +1,6 @@
 package com.web.prime_drip_club.dto.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,5 +15,9 @@ public class Response<T> {
     private Boolean success;
     private T data;
     private String message;
+
+    /* cursor opaco de la siguiente página; solo en listados paginados */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
     
 }
@@ -0,0 +1,47 @@
+package com.web.prime_drip_club.dto.producto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ActualizacionMasivaRequest {
+
+    @NotEmpty(message = "Debe indicar al menos un cambio")
+    @Size(max = 2000, message = "No se pueden actualizar más de 2000 productos a la vez")
+    private List<@Valid @NotNull Cambio> cambios;
+
+    /**
+     * Cambio de un producto: solo se actualizan los campos no nulos
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Cambio {
+
+        @NotNull(message = "El ID del producto es obligatorio")
+        private Long id;
+
+        @DecimalMin(value = "0.0", inclusive = false, message = "El precio debe ser mayor a 0")
+        private BigDecimal precio;
+
+        @Min(value = 0, message = "El stock no puede ser negativo")
+        private Integer stock;
+
+        private Boolean activo;
+    }
+}
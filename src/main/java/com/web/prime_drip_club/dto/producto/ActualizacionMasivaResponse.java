@@ -0,0 +1,19 @@
+package com.web.prime_drip_club.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ActualizacionMasivaResponse {
+    private List<Long> actualizados;
+
+    /* IDs del pedido que no existen */
+    private List<Long> noEncontrados;
+}
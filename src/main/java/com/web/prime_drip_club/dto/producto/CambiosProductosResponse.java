@@ -0,0 +1,31 @@
+package com.web.prime_drip_club.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cambios del catálogo de productos activos desde una versión.
+ * <p>
+ * Si resincronizar es true productos trae todos los productos activos: el
+ * cliente reemplaza su copia por ellos y sigue sincronizando desde version
+ * (puede recibir de nuevo cambios que ya estaban incluidos). Si no,
+ * aplica productos (altas y modificaciones) y eliminados (borrados o
+ * desactivados) y vuelve a pedir desde version; con hayMas=true quedan
+ * cambios pendientes y puede pedirlos de inmediato.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CambiosProductosResponse {
+    private Long version;
+    private Boolean resincronizar;
+    private Boolean hayMas;
+    private List<ProductoCardResponse> productos;
+    private List<Long> eliminados;
+}
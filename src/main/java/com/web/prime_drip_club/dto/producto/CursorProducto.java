@@ -0,0 +1,48 @@
+package com.web.prime_drip_club.dto.producto;
+
+import com.web.prime_drip_club.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición dentro de un listado ordenado por fecha_creacion DESC, id DESC.
+ * Se envía al cliente como un token opaco (Base64 URL-safe).
+ *
+ * @param fechaCreacion fecha_creacion del último producto de la página
+ * @param id            id del último producto de la página
+ */
+public record CursorProducto(LocalDateTime fechaCreacion, Long id) {
+
+    private static final char SEPARADOR = '|';
+
+    public static CursorProducto de(ProductoCardResponse producto) {
+        return new CursorProducto(producto.getFechaCreacion(), producto.getId());
+    }
+
+    public String codificar() {
+        String valor = fechaCreacion + String.valueOf(SEPARADOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor token recibido del cliente, puede ser null
+     * @return el cursor decodificado, null si no se envió
+     * @throws ValidationException si el token no es válido
+     */
+    public static CursorProducto decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new CursorProducto(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Cursor de paginación no válido");
+        }
+    }
+}
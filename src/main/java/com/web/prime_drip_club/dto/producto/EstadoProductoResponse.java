@@ -0,0 +1,56 @@
+package com.web.prime_drip_club.dto.producto;
+
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.Producto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Estado "en vivo" de un producto que se empuja por SSE a las páginas de
+ * producto: solo lo que cambia durante un lanzamiento.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EstadoProductoResponse {
+    private Long id;
+    private BigDecimal precio;
+    private Integer stock;
+    private EtiquetaProducto etiqueta;
+    private Boolean activo;
+
+    /* true si el producto se eliminó; el resto de campos va vacío */
+    private boolean eliminado;
+
+    public static EstadoProductoResponse desde(Producto producto) {
+        return EstadoProductoResponse.builder()
+                .id(producto.getId())
+                .precio(producto.getPrecio())
+                .stock(producto.getStock())
+                .etiqueta(producto.getEtiqueta())
+                .activo(producto.getActivo())
+                .build();
+    }
+
+    public static EstadoProductoResponse desde(ProductoCardResponse producto) {
+        return EstadoProductoResponse.builder()
+                .id(producto.getId())
+                .precio(producto.getPrecio())
+                .stock(producto.getStock())
+                .etiqueta(producto.getEtiqueta())
+                .activo(producto.getActivo())
+                .build();
+    }
+
+    public static EstadoProductoResponse eliminado(Long id) {
+        return EstadoProductoResponse.builder()
+                .id(id)
+                .eliminado(true)
+                .build();
+    }
+}
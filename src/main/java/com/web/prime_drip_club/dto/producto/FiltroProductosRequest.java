@@ -0,0 +1,35 @@
+package com.web.prime_drip_club.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Parámetros de GET /v1/productos/filtrar. Dentro de una misma faceta los
+ * valores se combinan con OR (categoriaId=1&categoriaId=3) y entre facetas
+ * con AND. Sexo y etiqueta aceptan el valor ("Hombre") o el nombre ("HOMBRE").
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FiltroProductosRequest {
+    private List<Long> categoriaId;
+    private List<String> sexo;
+    private List<String> etiqueta;
+    private List<String> marca;
+    private Boolean destacado;
+    private BigDecimal precioMin;
+    private BigDecimal precioMax;
+
+    /* recientes (defecto), precio_asc, precio_desc o popularidad */
+    private String orden;
+
+    /* número de página empezando en 0 */
+    private Integer pagina;
+    private Integer size;
+}
@@ -0,0 +1,25 @@
+package com.web.prime_drip_club.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FiltroProductosResponse {
+    private List<ProductoCardResponse> productos;
+
+    /* total de productos que cumplen el filtro (todas las páginas) */
+    private int total;
+    private int pagina;
+    private int size;
+
+    /* faceta -> valor -> productos con ese valor que cumplen los demás filtros */
+    private Map<String, Map<String, Integer>> facetas;
+}
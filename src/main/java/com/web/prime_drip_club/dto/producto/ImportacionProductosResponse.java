@@ -0,0 +1,32 @@
+package com.web.prime_drip_club.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportacionProductosResponse {
+
+    /* filas de datos leídas (sin contar la cabecera del CSV) */
+    private int filasLeidas;
+    private int insertados;
+    private int conErrores;
+
+    /* detalle de las primeras filas rechazadas */
+    private List<ErrorFila> errores;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ErrorFila {
+        /* número de línea (CSV: la cabecera es la 1) */
+        private int fila;
+        private String mensaje;
+    }
+}
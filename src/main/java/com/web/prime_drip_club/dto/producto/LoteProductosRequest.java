@@ -0,0 +1,22 @@
+package com.web.prime_drip_club.dto.producto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LoteProductosRequest {
+
+    @NotEmpty(message = "Debe indicar al menos un ID de producto")
+    @Size(max = 500, message = "No se pueden consultar más de 500 productos a la vez")
+    private List<@NotNull(message = "Los IDs no pueden ser nulos") Long> ids;
+}
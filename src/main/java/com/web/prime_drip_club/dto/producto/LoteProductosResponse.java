@@ -0,0 +1,22 @@
+package com.web.prime_drip_club.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LoteProductosResponse {
+
+    /* ID -> producto, en el mismo orden en que se pidieron */
+    private Map<Long, ProductoResponse> productos;
+
+    /* IDs pedidos que no existen */
+    private List<Long> noEncontrados;
+}
@@ -0,0 +1,55 @@
+package com.web.prime_drip_club.dto.producto;
+
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.models.SexoProducto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección ligera de producto para los listados (grillas).
+ * No incluye la descripción: solo GET /v1/productos/{id} la devuelve.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductoCardResponse {
+    private Long id;
+    private String nombre;
+    private BigDecimal precio;
+    private Integer stock;
+    private String marca;
+    private String imagenUrl;
+    private Boolean activo;
+    private Long categoriaId;
+    private EtiquetaProducto etiqueta;
+    private SexoProducto sexo;
+    private Boolean isFeatured;
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Convierte la entidad Producto a ProductoCardResponse
+     */
+    public static ProductoCardResponse desde(Producto producto) {
+        return ProductoCardResponse.builder()
+                .id(producto.getId())
+                .nombre(producto.getNombre())
+                .precio(producto.getPrecio())
+                .stock(producto.getStock())
+                .marca(producto.getMarca())
+                .imagenUrl(producto.getImagenUrl())
+                .activo(producto.getActivo())
+                .categoriaId(producto.getCategoriaId())
+                .etiqueta(producto.getEtiqueta())
+                .sexo(producto.getSexo())
+                .isFeatured(producto.getIsFeatured())
+                .fechaCreacion(producto.getFechaCreacion())
+                .build();
+    }
+}
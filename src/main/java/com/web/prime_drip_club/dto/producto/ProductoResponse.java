@@ -1,6 +1,7 @@
 package com.web.prime_drip_club.dto.producto;
 
 import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.Producto;
 import com.web.prime_drip_club.models.SexoProducto;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,8 +25,31 @@ public class ProductoResponse {
     private String imagenUrl;
     private Boolean activo;
     private Long categoriaId;
+    /* resuelto desde RegistroCategorias, no forma parte de la fila */
+    private String categoriaNombre;
     private EtiquetaProducto etiqueta;
     private SexoProducto sexo;
     private Boolean isFeatured;
     private LocalDateTime fechaCreacion;
-}
\ No newline at end of file
+
+    /**
+     * Convierte la entidad Producto a ProductoResponse
+     */
+    public static ProductoResponse desde(Producto producto) {
+        return ProductoResponse.builder()
+                .id(producto.getId())
+                .nombre(producto.getNombre())
+                .descripcion(producto.getDescripcion())
+                .precio(producto.getPrecio())
+                .stock(producto.getStock())
+                .marca(producto.getMarca())
+                .imagenUrl(producto.getImagenUrl())
+                .activo(producto.getActivo())
+                .categoriaId(producto.getCategoriaId())
+                .etiqueta(producto.getEtiqueta())
+                .sexo(producto.getSexo())
+                .isFeatured(producto.getIsFeatured())
+                .fechaCreacion(producto.getFechaCreacion())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.web.prime_drip_club.events;
+
+import com.web.prime_drip_club.models.Categoria;
+
+/**
+ * Evento publicado por CategoriaService cuando cambia una categoría.
+ * Los listeners (cachés en memoria) lo reciben después del commit.
+ *
+ * @param guardada        categoría creada o actualizada, null si se eliminó
+ * @param eliminadaId     ID de la categoría eliminada, null si se guardó
+ * @param recargaCompleta true si las cachés deben recargarse desde la BD
+ */
+public record CategoriaModificadaEvent(Categoria guardada, Long eliminadaId, boolean recargaCompleta) {
+
+    public static CategoriaModificadaEvent guardada(Categoria categoria) {
+        return new CategoriaModificadaEvent(categoria, null, false);
+    }
+
+    public static CategoriaModificadaEvent eliminada(Long id) {
+        return new CategoriaModificadaEvent(null, id, false);
+    }
+
+    public static CategoriaModificadaEvent recargarTodo() {
+        return new CategoriaModificadaEvent(null, null, true);
+    }
+}
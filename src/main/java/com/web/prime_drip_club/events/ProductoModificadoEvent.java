@@ -0,0 +1,29 @@
+package com.web.prime_drip_club.events;
+
+import com.web.prime_drip_club.models.Producto;
+
+import java.util.List;
+
+/**
+ * Evento publicado por ProductoService cuando cambia el catálogo.
+ * Los listeners (cachés en memoria) lo reciben después del commit.
+ *
+ * @param guardados        productos creados o actualizados (estado final)
+ * @param eliminados       IDs de productos eliminados
+ * @param recargaCompleta  true si el cambio no se puede describir fila a fila
+ *                         y las cachés deben reconstruirse desde la BD
+ */
+public record ProductoModificadoEvent(List<Producto> guardados, List<Long> eliminados, boolean recargaCompleta) {
+
+    public static ProductoModificadoEvent guardado(Producto producto) {
+        return new ProductoModificadoEvent(List.of(producto), List.of(), false);
+    }
+
+    public static ProductoModificadoEvent eliminado(Long id) {
+        return new ProductoModificadoEvent(List.of(), List.of(id), false);
+    }
+
+    public static ProductoModificadoEvent recargarTodo() {
+        return new ProductoModificadoEvent(List.of(), List.of(), true);
+    }
+}
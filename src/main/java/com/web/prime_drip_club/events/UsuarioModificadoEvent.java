@@ -0,0 +1,15 @@
+package com.web.prime_drip_club.events;
+
+/**
+ * Evento publicado cuando cambian los datos de autenticación de usuarios
+ * existentes (roles, activo o contraseña) y hay que descartar todos los
+ * usuarios en caché. Hoy solo lo publica CoherenciaCache al ver avanzar la
+ * región 'usuario' de cache_version. Los listeners lo reciben después del
+ * commit.
+ */
+public record UsuarioModificadoEvent() {
+
+    public static UsuarioModificadoEvent recargarTodo() {
+        return new UsuarioModificadoEvent();
+    }
+}
@@ -1,8 +1,13 @@
 package com.web.prime_drip_club.exception;
 
+/**
+ * Recurso inexistente (404). Se crea sin stack trace (writableStackTrace =
+ * false): no aporta nada al log y rellenarlo en cada petición a un ID
+ * inexistente es caro.
+ */
 public class ResourceNotFoundException extends RuntimeException {
     
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
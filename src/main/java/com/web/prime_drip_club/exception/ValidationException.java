@@ -1,8 +1,12 @@
 package com.web.prime_drip_club.exception;
 
+/**
+ * Datos de entrada no válidos (400). Sin stack trace, igual que
+ * ResourceNotFoundException: es un resultado normal de la petición.
+ */
 public class ValidationException extends RuntimeException {
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
 }
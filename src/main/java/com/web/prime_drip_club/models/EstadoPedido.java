@@ -3,6 +3,9 @@ package com.web.prime_drip_club.models;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum EstadoPedido {
     PENDIENTE("Pendiente"),
     PAGO_PENDIENTE("Pago pendiente"),
@@ -16,6 +19,18 @@ public enum EstadoPedido {
 
     private final String valor;
 
+    /* valor (y nombre) -> constante, para no recorrer values() en cada fila */
+    private static final Map<String, EstadoPedido> POR_VALOR;
+
+    static {
+        Map<String, EstadoPedido> porValor = new HashMap<>();
+        for (EstadoPedido estado : values()) {
+            porValor.put(estado.valor, estado);
+            porValor.put(estado.name(), estado);
+        }
+        POR_VALOR = Map.copyOf(porValor);
+    }
+
     EstadoPedido(String valor) {
         this.valor = valor;
     }
@@ -30,10 +45,9 @@ public enum EstadoPedido {
         if (valor == null) {
             return null;
         }
-        for (EstadoPedido estado : EstadoPedido.values()) {
-            if (estado.valor.equals(valor) || estado.name().equals(valor)) {
-                return estado;
-            }
+        EstadoPedido estado = POR_VALOR.get(valor);
+        if (estado != null) {
+            return estado;
         }
         throw new IllegalArgumentException("Estado de pedido no válido: " + valor);
     }
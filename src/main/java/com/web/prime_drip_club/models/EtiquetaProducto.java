@@ -3,6 +3,9 @@ package com.web.prime_drip_club.models;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum EtiquetaProducto {
     AGOTADO("Agotado"),
     NUEVO("Nuevo"),
@@ -12,6 +15,17 @@ public enum EtiquetaProducto {
 
     private final String valor;
 
+    /* valor -> constante, para no recorrer values() en cada fila */
+    private static final Map<String, EtiquetaProducto> POR_VALOR;
+
+    static {
+        Map<String, EtiquetaProducto> porValor = new HashMap<>();
+        for (EtiquetaProducto etiqueta : values()) {
+            porValor.put(etiqueta.valor, etiqueta);
+        }
+        POR_VALOR = Map.copyOf(porValor);
+    }
+
     EtiquetaProducto(String valor) {
         this.valor = valor;
     }
@@ -35,10 +49,9 @@ public enum EtiquetaProducto {
         if (valor == null) {
             return null;
         }
-        for (EtiquetaProducto etiqueta : EtiquetaProducto.values()) {
-            if (etiqueta.valor.equals(valor)) {
-                return etiqueta;
-            }
+        EtiquetaProducto etiqueta = POR_VALOR.get(valor);
+        if (etiqueta != null) {
+            return etiqueta;
         }
         throw new IllegalArgumentException("Etiqueta no válida: " + valor);
     }
@@ -0,0 +1,19 @@
+package com.web.prime_drip_club.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de producto_cambio. productoId null indica una carga masiva.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductoCambio {
+    private Long version;
+    private Long productoId;
+    private Boolean eliminado;
+}
@@ -3,6 +3,9 @@ package com.web.prime_drip_club.models;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum SexoProducto {
     HOMBRE("Hombre"),
     MUJER("Mujer"),
@@ -11,6 +14,17 @@ public enum SexoProducto {
 
     private final String valor;
 
+    /* valor -> constante, para no recorrer values() en cada fila */
+    private static final Map<String, SexoProducto> POR_VALOR;
+
+    static {
+        Map<String, SexoProducto> porValor = new HashMap<>();
+        for (SexoProducto sexo : values()) {
+            porValor.put(sexo.valor, sexo);
+        }
+        POR_VALOR = Map.copyOf(porValor);
+    }
+
     SexoProducto(String valor) {
         this.valor = valor;
     }
@@ -37,10 +51,9 @@ public enum SexoProducto {
         if (valor == null) {
             return null;
         }
-        for (SexoProducto sexo : SexoProducto.values()) {
-            if (sexo.valor.equals(valor)) {
-                return sexo;
-            }
+        SexoProducto sexo = POR_VALOR.get(valor);
+        if (sexo != null) {
+            return sexo;
         }
         throw new IllegalArgumentException("Sexo no válido: " + valor);
     }
@@ -0,0 +1,21 @@
+package com.web.prime_drip_club.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Usuario y nombres de sus roles, leídos en una sola consulta para la
+ * autenticación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsuarioConRoles {
+    private Usuario usuario;
+    private List<String> roles;
+}
@@ -0,0 +1,316 @@
+package com.web.prime_drip_club.push;
+
+import com.web.prime_drip_club.cache.CatalogoProductos;
+import com.web.prime_drip_club.dto.producto.EstadoProductoResponse;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.exception.ValidationException;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Canal Server-Sent Events con el estado en vivo (precio, stock, etiqueta,
+ * activo) de los productos a los que se suscribe cada página.
+ * <p>
+ * Los cambios llegan por ProductoModificadoEvent después del commit y se
+ * acumulan durante una ventana corta (productos.stream.ventana-ms): si un
+ * producto cambia varias veces dentro de la ventana solo se envía el último
+ * estado, y nunca se reenvía un estado idéntico al anterior.
+ * </p>
+ * Cada conexión tiene su propia cola, con el último estado pendiente por
+ * producto, y como mucho un hilo virtual que la vacía: los estados llegan
+ * en orden, un cliente lento no retrasa a los demás y, por lento que sea,
+ * no acumula más de un estado por producto seguido ni más de un hilo. La
+ * conexión no ocupa un hilo del servidor mientras espera (SseEmitter usa
+ * el modo asíncrono del servlet).
+ * Métrica: productos.stream.conexiones.
+ */
+@Slf4j
+@Component
+public class CanalProductos {
+
+    private static final long TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final int MAXIMO_IDS = 50;
+    private static final String EVENTO = "producto";
+
+    private final CatalogoProductos catalogoProductos;
+    private final ProductoRepository productoRepository;
+    private final long ventanaMs;
+    private final long latidoSegundos;
+
+    /* id producto -> conexiones suscritas a él */
+    private final Map<Long, Set<Suscripcion>> suscripciones = new ConcurrentHashMap<>();
+    private final Set<Suscripcion> activas = ConcurrentHashMap.newKeySet();
+    /* último estado recibido en la ventana actual por producto */
+    private final Map<Long, EstadoProductoResponse> pendientes = new ConcurrentHashMap<>();
+    /* último estado enviado por producto, para no repetir envíos */
+    private final Map<Long, EstadoProductoResponse> ultimosEnviados = new ConcurrentHashMap<>();
+    private final AtomicBoolean recargaPendiente = new AtomicBoolean();
+
+    private final ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sse-productos").daemon().factory());
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CanalProductos(CatalogoProductos catalogoProductos,
+                          ProductoRepository productoRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${productos.stream.ventana-ms:250}") long ventanaMs,
+                          @Value("${productos.stream.latido-segundos:25}") long latidoSegundos) {
+        this.catalogoProductos = catalogoProductos;
+        this.productoRepository = productoRepository;
+        this.ventanaMs = ventanaMs;
+        this.latidoSegundos = latidoSegundos;
+        Gauge.builder("productos.stream.conexiones", activas, Set::size)
+                .register(meterRegistry);
+    }
+
+    private static final class Suscripcion {
+        private final SseEmitter emitter;
+        private final Set<Long> ids;
+        /* protege la cola y el indicador de vaciado; nunca se retiene durante un envío */
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean cerrada = new AtomicBoolean();
+        /* último estado aún no enviado por producto, en orden de llegada */
+        private final Map<Long, EstadoProductoResponse> cola = new LinkedHashMap<>();
+        private boolean latidoPendiente;
+        /* hay un hilo vaciando la cola */
+        private boolean vaciando;
+
+        private Suscripcion(SseEmitter emitter, Set<Long> ids) {
+            this.emitter = emitter;
+            this.ids = ids;
+        }
+    }
+
+    @PostConstruct
+    void iniciar() {
+        programador.scheduleWithFixedDelay(this::publicarPendientes, ventanaMs, ventanaMs, TimeUnit.MILLISECONDS);
+        programador.scheduleAtFixedRate(this::latido, latidoSegundos, latidoSegundos, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void detener() {
+        programador.shutdownNow();
+        activas.forEach(s -> s.emitter.complete());
+        envios.shutdownNow();
+    }
+
+    /**
+     * Abre una conexión SSE para los productos indicados. Envía de
+     * inmediato el estado actual de los que están activos en el catálogo.
+     */
+    public SseEmitter suscribir(Collection<Long> ids) {
+        Set<Long> unicos = new LinkedHashSet<>(ids);
+        unicos.remove(null);
+        if (unicos.isEmpty()) {
+            throw new ValidationException("Debe indicar al menos un ID de producto");
+        }
+        if (unicos.size() > MAXIMO_IDS) {
+            throw new ValidationException("No se pueden seguir más de " + MAXIMO_IDS + " productos por conexión");
+        }
+
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+        Suscripcion suscripcion = new Suscripcion(emitter, Set.copyOf(unicos));
+        activas.add(suscripcion);
+        for (Long id : suscripcion.ids) {
+            suscripciones.compute(id, (k, conjunto) -> {
+                Set<Suscripcion> actual = conjunto != null ? conjunto : ConcurrentHashMap.newKeySet();
+                actual.add(suscripcion);
+                return actual;
+            });
+        }
+        emitter.onCompletion(() -> cancelar(suscripcion));
+        emitter.onTimeout(() -> cancelar(suscripcion));
+        emitter.onError(e -> cancelar(suscripcion));
+
+        Map<Long, ProductoCardResponse> activos = catalogoProductos.snapshot().porId();
+        List<EstadoProductoResponse> iniciales = unicos.stream()
+                .map(activos::get)
+                .filter(Objects::nonNull)
+                .map(EstadoProductoResponse::desde)
+                .toList();
+        encolar(suscripcion, iniciales, false);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductoModificado(ProductoModificadoEvent event) {
+        if (event.recargaCompleta()) {
+            recargaPendiente.set(true);
+            return;
+        }
+        for (Producto producto : event.guardados()) {
+            if (suscripciones.containsKey(producto.getId())) {
+                pendientes.put(producto.getId(), EstadoProductoResponse.desde(producto));
+            }
+        }
+        for (Long id : event.eliminados()) {
+            if (suscripciones.containsKey(id)) {
+                pendientes.put(id, EstadoProductoResponse.eliminado(id));
+            }
+        }
+    }
+
+    /**
+     * Se ejecuta al cerrar cada ventana: agrupa los estados nuevos por
+     * conexión y los envía en una sola tanda por conexión.
+     */
+    private void publicarPendientes() {
+        try {
+            if (recargaPendiente.getAndSet(false) && !suscripciones.isEmpty()) {
+                // una recarga completa no dice qué cambió: se releen solo los productos seguidos
+                Set<Long> seguidos = Set.copyOf(suscripciones.keySet());
+                Map<Long, Producto> actuales = productoRepository.findByIds(seguidos).stream()
+                        .collect(Collectors.toMap(Producto::getId, Function.identity()));
+                for (Long id : seguidos) {
+                    Producto producto = actuales.get(id);
+                    pendientes.put(id, producto != null
+                            ? EstadoProductoResponse.desde(producto)
+                            : EstadoProductoResponse.eliminado(id));
+                }
+            }
+            if (pendientes.isEmpty()) {
+                return;
+            }
+
+            Map<Suscripcion, List<EstadoProductoResponse>> porSuscripcion = new HashMap<>();
+            for (Long id : new ArrayList<>(pendientes.keySet())) {
+                EstadoProductoResponse estado = pendientes.remove(id);
+                Set<Suscripcion> conjunto = suscripciones.get(id);
+                if (estado == null || conjunto == null || estado.equals(ultimosEnviados.get(id))) {
+                    continue;
+                }
+                ultimosEnviados.put(id, estado);
+                conjunto.forEach(s -> porSuscripcion.computeIfAbsent(s, k -> new ArrayList<>()).add(estado));
+            }
+            porSuscripcion.forEach((suscripcion, estados) -> encolar(suscripcion, estados, false));
+        } catch (Exception e) {
+            // una excepción cancelaría la tarea programada
+            log.warn("Error al publicar cambios de productos por SSE: {}", e.getMessage());
+        }
+    }
+
+    /* Comentario periódico: mantiene viva la conexión y detecta clientes que se fueron */
+    private void latido() {
+        activas.forEach(s -> encolar(s, List.of(), true));
+    }
+
+    /**
+     * Añade los estados a la cola de la conexión, reemplazando el pendiente
+     * del mismo producto, y arranca el hilo que la vacía si no hay ninguno.
+     */
+    private void encolar(Suscripcion suscripcion, List<EstadoProductoResponse> estados, boolean latido) {
+        if ((estados.isEmpty() && !latido) || suscripcion.cerrada.get()) {
+            return;
+        }
+        suscripcion.lock.lock();
+        try {
+            for (EstadoProductoResponse estado : estados) {
+                // se quita antes para que el estado nuevo pase al final, detrás de los anteriores
+                suscripcion.cola.remove(estado.getId());
+                suscripcion.cola.put(estado.getId(), estado);
+            }
+            suscripcion.latidoPendiente |= latido;
+            if (suscripcion.vaciando) {
+                return;
+            }
+            suscripcion.vaciando = true;
+        } finally {
+            suscripcion.lock.unlock();
+        }
+        try {
+            envios.execute(() -> vaciar(suscripcion));
+        } catch (RejectedExecutionException e) {
+            // el canal se está deteniendo
+            cancelar(suscripcion);
+        }
+    }
+
+    /* Único hilo de envío de la conexión: envía tandas hasta que la cola queda vacía */
+    private void vaciar(Suscripcion suscripcion) {
+        while (true) {
+            List<EstadoProductoResponse> tanda;
+            boolean latido;
+            suscripcion.lock.lock();
+            try {
+                if (suscripcion.cerrada.get() || (suscripcion.cola.isEmpty() && !suscripcion.latidoPendiente)) {
+                    suscripcion.vaciando = false;
+                    return;
+                }
+                tanda = List.copyOf(suscripcion.cola.values());
+                latido = suscripcion.latidoPendiente;
+                suscripcion.cola.clear();
+                suscripcion.latidoPendiente = false;
+            } finally {
+                suscripcion.lock.unlock();
+            }
+            try {
+                for (EstadoProductoResponse estado : tanda) {
+                    suscripcion.emitter.send(evento(estado));
+                }
+                if (latido) {
+                    suscripcion.emitter.send(SseEmitter.event().comment("latido"));
+                }
+            } catch (Exception e) {
+                cancelar(suscripcion);
+                try {
+                    suscripcion.emitter.completeWithError(e);
+                } catch (Exception ignorada) {
+                    // la conexión ya estaba cerrada
+                }
+            }
+        }
+    }
+
+    private void cancelar(Suscripcion suscripcion) {
+        if (!suscripcion.cerrada.compareAndSet(false, true)) {
+            return;
+        }
+        activas.remove(suscripcion);
+        for (Long id : suscripcion.ids) {
+            Set<Suscripcion> restante = suscripciones.computeIfPresent(id, (k, conjunto) -> {
+                conjunto.remove(suscripcion);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+            if (restante == null) {
+                ultimosEnviados.remove(id);
+            }
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder evento(EstadoProductoResponse estado) {
+        return SseEmitter.event()
+                .name(EVENTO)
+                .data(estado, MediaType.APPLICATION_JSON);
+    }
+}
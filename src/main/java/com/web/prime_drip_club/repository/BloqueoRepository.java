@@ -0,0 +1,12 @@
+package com.web.prime_drip_club.repository;
+
+public interface BloqueoRepository {
+
+    /**
+     * Ejecuta la tarea con el bloqueo con nombre de MySQL (GET_LOCK), que
+     * es común a todos los nodos. Si otro lo tiene no espera.
+     *
+     * @return false si la tarea no se ejecutó porque el bloqueo estaba ocupado
+     */
+    boolean ejecutarSiLibre(String nombre, Runnable tarea);
+}
@@ -0,0 +1,18 @@
+package com.web.prime_drip_club.repository;
+
+import java.util.Map;
+
+public interface CacheVersionRepository {
+
+    /**
+     * Versión actual de cada región.
+     */
+    Map<String, Long> findAll();
+
+    /**
+     * Incrementa la versión de la región dentro de la transacción en curso.
+     *
+     * @return la versión nueva
+     */
+    long incrementar(String region);
+}
@@ -0,0 +1,43 @@
+package com.web.prime_drip_club.repository;
+
+import com.web.prime_drip_club.models.ProductoCambio;
+import java.time.Duration;
+import java.util.List;
+
+public interface ProductoCambioRepository {
+
+    /**
+     * Cambios con versión mayor que la indicada, en orden de versión.
+     */
+    List<ProductoCambio> findDesde(long version, int limite);
+
+    /**
+     * Última versión reservada en el registro de cambios.
+     */
+    long versionActual();
+
+    /**
+     * Versión más alta borrada por la compactación; quien sincroniza desde
+     * una versión menor necesita una resincronización completa.
+     */
+    long versionCompactada();
+
+    /**
+     * Versión más alta de los cambios con más antigüedad que la indicada
+     * (según el reloj de MySQL), 0 si no hay.
+     */
+    long versionMasAntiguaQue(Duration antiguedad);
+
+    /**
+     * Marca el límite de compactación; se hace antes de borrar para que
+     * ningún lector reciba un historial con huecos.
+     */
+    void marcarCompactado(long version);
+
+    /**
+     * Borra hasta limite cambios con versión menor o igual que la indicada.
+     *
+     * @return filas borradas
+     */
+    int deleteHasta(long version, int limite);
+}
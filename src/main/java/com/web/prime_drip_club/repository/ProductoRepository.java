@@ -1,21 +1,129 @@
 package com.web.prime_drip_club.repository;
 
 import com.web.prime_drip_club.models.Producto;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductoRepository {
     List<Producto> findAll();
 
+    /**
+     * Recorre todos los productos en orden de ID sin materializar la lista:
+     * cada fila se entrega al consumidor según llega de MySQL.
+     */
+    void forEach(Consumer<Producto> consumidor);
+
     List<Producto> findByActivo(Boolean activo);
 
     List<Producto> findByCategoriaId(Long categoriaId);
 
+    /**
+     * Proyección "card": productos sin descripción (queda null), ordenados
+     * por fecha_creacion DESC.
+     *
+     * @param activo filtro por estado, null para todos
+     */
+    List<Producto> findCards(Boolean activo);
+
+    /**
+     * Página de cards ordenada por fecha_creacion DESC, id DESC que empieza justo
+     * después del producto indicado (keyset pagination).
+     *
+     * @param activo    filtro por estado, null para todos
+     * @param despuesDe último producto de la página anterior (solo se usan
+     *                  fechaCreacion e id), null para la primera
+     * @param limite    número máximo de filas
+     */
+    List<Producto> findCardPagina(Boolean activo, Producto despuesDe, int limite);
+
+    /**
+     * Las N cards activas más recientes de cada categoría en una sola
+     * consulta, ordenadas por categoria_id y después por fecha_creacion DESC.
+     */
+    List<Producto> findCardsRecientesPorCategoria(int porCategoria);
+
     Optional<Producto> findById(Long id);
 
+    /**
+     * IDs de todos los productos, activos o no.
+     */
+    List<Long> findIds();
+
+    /**
+     * Productos con los IDs indicados en una sola consulta IN (...) por
+     * bloque. El orden del resultado no está definido y los IDs que no
+     * existen simplemente no aparecen.
+     */
+    List<Producto> findByIds(Collection<Long> ids);
+
+    /**
+     * Unidades vendidas por producto en pedidos no cancelados ni devueltos,
+     * usado como señal de popularidad.
+     */
+    Map<Long, Long> findUnidadesVendidas();
+
     Long save(Producto producto);
 
+    /**
+     * Inserta los productos con un único batch JDBC, sin recuperar los IDs
+     * generados. Con rewriteBatchedStatements el driver lo envía como
+     * INSERT multi-fila.
+     *
+     * @return número de filas insertadas
+     */
+    int saveAll(List<Producto> productos);
+
     Boolean update(Producto producto);
 
+    /**
+     * Aplica cambios parciales de precio, stock y/o activo: de cada producto
+     * se usan el ID y esos tres campos, y los nulos no se modifican. Los
+     * cambios se agrupan por las columnas que modifican y cada grupo se
+     * envía como un batch con un UPDATE que solo toca esas columnas.
+     *
+     * @return IDs de los productos que existían y se actualizaron; solo esos
+     *         se anotan en producto_cambio
+     */
+    List<Long> updateParcial(List<Producto> cambios);
+
     Boolean delete(Long id);
+
+    /**
+     * Etiqueta "Agotado" a productos con stock 0. Como las otras dos reglas
+     * de stock, actualiza como mucho "limite" filas por llamada y solo toca
+     * productos sin etiqueta o con la otra etiqueta de stock, nunca las
+     * comerciales (Nuevo, Oferta, Destacado).
+     *
+     * @return filas actualizadas
+     */
+    int marcarAgotados(int limite);
+
+    /**
+     * Etiqueta "Últimas unidades" a productos con stock entre 1 y el umbral.
+     *
+     * @return filas actualizadas
+     */
+    int marcarUltimasUnidades(int umbral, int limite);
+
+    /**
+     * Quita Agotado / Últimas unidades a productos con stock mayor al umbral.
+     *
+     * @return filas actualizadas
+     */
+    int limpiarEtiquetasStock(int umbral, int limite);
+
+    /**
+     * Productos cuyo stock cambió después del instante indicado
+     * (usa idx_producto_stock_actualizado).
+     */
+    List<Producto> findCardsStockCambiadoDesde(LocalDateTime desde);
+
+    /**
+     * Hora actual de MySQL: el mismo reloj con el que se marca stock_actualizado.
+     */
+    LocalDateTime ahora();
 }
@@ -1,6 +1,7 @@
 package com.web.prime_drip_club.repository;
 
 import com.web.prime_drip_club.models.Usuario;
+import com.web.prime_drip_club.models.UsuarioConRoles;
 import java.util.Optional;
 
 public interface UsuarioRepository {
@@ -9,4 +10,9 @@ public interface UsuarioRepository {
     Long save(Usuario usuario);
     Boolean updateRol(Long id , Long rol);
     Optional<Usuario> findById(Long id);
+
+    /**
+     * Usuario y sus roles con un único JOIN, para cargar los UserDetails.
+     */
+    Optional<UsuarioConRoles> findConRolesByEmail(String email);
 }
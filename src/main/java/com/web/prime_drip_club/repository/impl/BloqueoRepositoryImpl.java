@@ -0,0 +1,49 @@
+package com.web.prime_drip_club.repository.impl;
+
+import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.repository.BloqueoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+@Repository
+@RequiredArgsConstructor
+public class BloqueoRepositoryImpl implements BloqueoRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean ejecutarSiLibre(String nombre, Runnable tarea) {
+        try {
+            // GET_LOCK pertenece a la conexión: se retiene la misma hasta liberarlo
+            Boolean ejecutada = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                    ps.setString(1, nombre);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next() || rs.getInt(1) != 1) {
+                            return false;
+                        }
+                    }
+                }
+                try {
+                    tarea.run();
+                    return true;
+                } finally {
+                    try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                        ps.setString(1, nombre);
+                        ps.executeQuery().close();
+                    }
+                }
+            });
+            return Boolean.TRUE.equals(ejecutada);
+        } catch (DataAccessException e) {
+            // los errores de la propia tarea no pasan por aquí: se propagan tal cual
+            throw new DatabaseException("Error con el bloqueo " + nombre + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.web.prime_drip_club.repository.impl;
+
+import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.repository.CacheVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class CacheVersionRepositoryImpl implements CacheVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, Long> findAll() {
+        String sql = "SELECT region, version FROM cache_version";
+        try {
+            Map<String, Long> versiones = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                versiones.put(rs.getString(1), rs.getLong(2));
+            });
+            return versiones;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al leer versiones de caché: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long incrementar(String region) {
+        String sql = "UPDATE cache_version SET version = LAST_INSERT_ID(version + 1) WHERE region = ?";
+        try {
+            // LAST_INSERT_ID es por conexión: el UPDATE y su lectura van por la misma
+            Long version = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(sql);
+                     Statement st = connection.createStatement()) {
+                    ps.setString(1, region);
+                    if (ps.executeUpdate() == 0) {
+                        return null;
+                    }
+                    try (ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+                        rs.next();
+                        return rs.getLong(1);
+                    }
+                }
+            });
+            if (version == null) {
+                throw new DatabaseException("Región de caché desconocida: " + region);
+            }
+            return version;
+        } catch (DatabaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al incrementar versión de caché: " + e.getMessage(), e);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import com.web.prime_drip_club.dto.carrito.CarritoResponse;
 import com.web.prime_drip_club.dto.carrito.DetalleCarritoResponse;
 import com.web.prime_drip_club.exception.DatabaseException;
 import com.web.prime_drip_club.repository.CarritoRespository;
+import com.web.prime_drip_club.repository.mapper.FilaIndexada;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,6 +24,12 @@ public class CarritoRespositoryImpl implements CarritoRespository {
 
     private final JdbcTemplate jdbcTemplate;
 
+    /* columnas de la consulta de obtenerCarrito (carrito + detalle + producto) */
+    private enum Columna {
+        ID, USUARIO_ID, SESSION_ID, FECHA_CREACION, FECHA_ACTUALIZACION, DETALLE_ID, CARRITO_ID,
+        PRODUCTO_ID, NOMBRE, IMAGEN_URL, MARCA, STOCK, CATEGORIA_ID, CANTIDAD, PRECIO_UNITARIO, FECHA_AGREGADO
+    }
+
     @Override
     public Long guardarCarrito(CarritoRequest carrito) {
         // SQL: Inserta usuario_id o session_id (uno de los dos debe ser NOT NULL según
@@ -87,12 +94,12 @@ public class CarritoRespositoryImpl implements CarritoRespository {
                         c.id
                     FROM carrito c
                     WHERE c.usuario_id = ?
+                    LIMIT 1
                 """;
         try {
-            Long carritoId = jdbcTemplate.queryForObject(sql, Long.class, usuarioId);
-            return Optional.of(carritoId);
+            return jdbcTemplate.queryForList(sql, Long.class, usuarioId).stream().findFirst();
         } catch (Exception e) {
-            return Optional.empty();
+            throw new DatabaseException("Error al obtener el carrito del usuario: " + e.getMessage(), e);
         }
     }
 
@@ -125,35 +132,36 @@ public class CarritoRespositoryImpl implements CarritoRespository {
                 """;
         try {
             CarritoResponse carrito = jdbcTemplate.query(sql, rs -> {
+                FilaIndexada<Columna> fila = FilaIndexada.de(rs, Columna.class);
                 CarritoResponse response = null;
                 /* recorremos cada fila dela respuesta del left join */
                 while (rs.next()) {
                     if (response == null) {
                         response = new CarritoResponse();
-                        response.setId(rs.getLong("id"));
-                        response.setCarritoId(rs.getLong("carrito_id"));
-                        response.setUsuarioId(rs.getLong("usuario_id"));
-                        response.setSessionId(rs.getString("session_id"));
-                        response.setFechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime());
-                        response.setFechaActualizacion(rs.getTimestamp("fecha_actualizacion").toLocalDateTime());
+                        response.setId(fila.getLong(Columna.ID));
+                        response.setCarritoId(fila.getLong(Columna.CARRITO_ID));
+                        response.setUsuarioId(fila.getLong(Columna.USUARIO_ID));
+                        response.setSessionId(fila.getString(Columna.SESSION_ID));
+                        response.setFechaCreacion(fila.getLocalDateTime(Columna.FECHA_CREACION));
+                        response.setFechaActualizacion(fila.getLocalDateTime(Columna.FECHA_ACTUALIZACION));
                         response.setItems(new ArrayList<>());
                     }
 
                     // Si hay detalle (LEFT JOIN puede traer nulls)
-                    Long detalleId = rs.getLong("detalle_id");
-                    if (!rs.wasNull()) {
+                    Long detalleId = fila.getLongONulo(Columna.DETALLE_ID);
+                    if (detalleId != null) {
                         DetalleCarritoResponse detalle = new DetalleCarritoResponse();
                         detalle.setId(detalleId);
-                        detalle.setCarritoId(rs.getLong("carrito_id"));
-                        detalle.setProductoId(rs.getLong("producto_id"));
-                        detalle.setProductoNombre(rs.getString("nombre"));
-                        detalle.setProductoImagenUrl(rs.getString("imagen_url"));
-                        detalle.setCantidad(rs.getInt("cantidad"));
-                        detalle.setPrecioUnitario(rs.getBigDecimal("precio_unitario"));
-                        detalle.setMarca(rs.getString("marca"));
-                        detalle.setStock(rs.getInt("stock"));
-                        detalle.setCategoriaId(rs.getLong("categoria_id"));
-                        detalle.setFechaAgregado(rs.getTimestamp("fecha_agregado").toLocalDateTime());
+                        detalle.setCarritoId(fila.getLong(Columna.CARRITO_ID));
+                        detalle.setProductoId(fila.getLong(Columna.PRODUCTO_ID));
+                        detalle.setProductoNombre(fila.getString(Columna.NOMBRE));
+                        detalle.setProductoImagenUrl(fila.getString(Columna.IMAGEN_URL));
+                        detalle.setCantidad(fila.getInt(Columna.CANTIDAD));
+                        detalle.setPrecioUnitario(fila.getBigDecimal(Columna.PRECIO_UNITARIO));
+                        detalle.setMarca(fila.getString(Columna.MARCA));
+                        detalle.setStock(fila.getInt(Columna.STOCK));
+                        detalle.setCategoriaId(fila.getLong(Columna.CATEGORIA_ID));
+                        detalle.setFechaAgregado(fila.getLocalDateTime(Columna.FECHA_AGREGADO));
                         response.getItems().add(detalle);
                     }
                 }
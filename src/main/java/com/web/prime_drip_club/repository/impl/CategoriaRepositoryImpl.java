@@ -1,17 +1,18 @@
 package com.web.prime_drip_club.repository.impl;
 
 import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.exception.ValidationException;
 import com.web.prime_drip_club.models.Categoria;
 import com.web.prime_drip_club.repository.CategoriaRepository;
+import com.web.prime_drip_club.repository.mapper.MapeadorIndexado;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
@@ -22,19 +23,22 @@ public class CategoriaRepositoryImpl implements CategoriaRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    private Categoria mapRowToCategoria(ResultSet rs) throws SQLException {
-        return Categoria.builder()
-                .id(rs.getLong("id"))
-                .nombre(rs.getString("nombre"))
-                .descripcion(rs.getString("descripcion"))
-                .build();
+    private enum Columna {
+        ID, NOMBRE, DESCRIPCION
     }
 
+    private static final MapeadorIndexado<Columna, Categoria> CATEGORIA = new MapeadorIndexado<>(Columna.class,
+            fila -> Categoria.builder()
+                    .id(fila.getLong(Columna.ID))
+                    .nombre(fila.getString(Columna.NOMBRE))
+                    .descripcion(fila.getString(Columna.DESCRIPCION))
+                    .build());
+
     @Override
     public List<Categoria> findAll() {
         String sql = "SELECT * FROM categoria ORDER BY nombre ASC";
         try {
-            return jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToCategoria(rs));
+            return jdbcTemplate.query(sql, CATEGORIA.porConsulta());
         } catch (Exception e) {
             throw new DatabaseException("Error al obtener categorías: " + e.getMessage(), e);
         }
@@ -44,10 +48,9 @@ public class CategoriaRepositoryImpl implements CategoriaRepository {
     public Optional<Categoria> findById(Long id) {
         String sql = "SELECT * FROM categoria WHERE id = ?";
         try {
-            Categoria categoria = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> mapRowToCategoria(rs), id);
-            return Optional.ofNullable(categoria);
+            return jdbcTemplate.query(sql, CATEGORIA.porConsulta(), id).stream().findFirst();
         } catch (Exception e) {
-            return Optional.empty();
+            throw new DatabaseException("Error al buscar categoría por ID: " + e.getMessage(), e);
         }
     }
 
@@ -55,10 +58,9 @@ public class CategoriaRepositoryImpl implements CategoriaRepository {
     public Optional<Categoria> findByNombre(String nombre) {
         String sql = "SELECT * FROM categoria WHERE nombre = ?";
         try {
-            Categoria categoria = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> mapRowToCategoria(rs), nombre);
-            return Optional.ofNullable(categoria);
+            return jdbcTemplate.query(sql, CATEGORIA.porConsulta(), nombre).stream().findFirst();
         } catch (Exception e) {
-            return Optional.empty();
+            throw new DatabaseException("Error al buscar categoría por nombre: " + e.getMessage(), e);
         }
     }
 
@@ -79,6 +81,9 @@ public class CategoriaRepositoryImpl implements CategoriaRepository {
                 throw new DatabaseException("Error al guardar categoría: No se generó un ID");
             }
             return key.longValue();
+        } catch (DuplicateKeyException e) {
+            // uk_categoria_nombre: otra petición creó el mismo nombre a la vez
+            throw new ValidationException("Ya existe una categoría con el nombre: " + categoria.getNombre());
         } catch (Exception e) {
             throw new DatabaseException("Error al guardar categoría: " + e.getMessage(), e);
         }
@@ -93,6 +98,8 @@ public class CategoriaRepositoryImpl implements CategoriaRepository {
                     categoria.getDescripcion(),
                     categoria.getId());
             return rows > 0;
+        } catch (DuplicateKeyException e) {
+            throw new ValidationException("Ya existe otra categoría con el nombre: " + categoria.getNombre());
         } catch (Exception e) {
             throw new DatabaseException("Error al actualizar categoría: " + e.getMessage(), e);
         }
@@ -2,15 +2,14 @@ package com.web.prime_drip_club.repository.impl;
 
 import java.util.List;
 
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import com.web.prime_drip_club.dto.direccion.DireccionRequest;
 import com.web.prime_drip_club.dto.direccion.DireccionResponse;
 import com.web.prime_drip_club.exception.DatabaseException;
 import com.web.prime_drip_club.repository.DireccionRespository;
+import com.web.prime_drip_club.repository.mapper.MapeadorIndexado;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,24 +19,26 @@ public class DireccionRespositoryImpl implements DireccionRespository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    private final RowMapper<DireccionResponse> direccionRowMapper = (rs, rowNum) -> DireccionResponse.builder()
-            .id(rs.getLong("id"))
-            .usuarioId(rs.getLong("usuario_id"))
-            .alias(rs.getString("alias"))
-            .direccionCompleta(rs.getString("direccion_completa"))
-            .ciudad(rs.getString("ciudad"))
-            .departamento(rs.getString("departamento"))
-            .codigoPostal(rs.getString("codigo_postal"))
-            .telefonoContacto(rs.getString("telefono_contacto"))
-            .esPrincipal(rs.getBoolean("es_principal"))
-            .activa(rs.getBoolean("activa"))
-            .fechaCreacion(
-                    rs.getTimestamp("fecha_creacion") != null ? rs.getTimestamp("fecha_creacion").toLocalDateTime()
-                            : null)
-            .fechaActualizacion(rs.getTimestamp("fecha_actualizacion") != null
-                    ? rs.getTimestamp("fecha_actualizacion").toLocalDateTime()
-                    : null)
-            .build();
+    private enum Columna {
+        ID, USUARIO_ID, ALIAS, DIRECCION_COMPLETA, CIUDAD, DEPARTAMENTO, CODIGO_POSTAL,
+        TELEFONO_CONTACTO, ES_PRINCIPAL, ACTIVA, FECHA_CREACION, FECHA_ACTUALIZACION
+    }
+
+    private static final MapeadorIndexado<Columna, DireccionResponse> DIRECCION = new MapeadorIndexado<>(Columna.class,
+            fila -> DireccionResponse.builder()
+                    .id(fila.getLong(Columna.ID))
+                    .usuarioId(fila.getLong(Columna.USUARIO_ID))
+                    .alias(fila.getString(Columna.ALIAS))
+                    .direccionCompleta(fila.getString(Columna.DIRECCION_COMPLETA))
+                    .ciudad(fila.getString(Columna.CIUDAD))
+                    .departamento(fila.getString(Columna.DEPARTAMENTO))
+                    .codigoPostal(fila.getString(Columna.CODIGO_POSTAL))
+                    .telefonoContacto(fila.getString(Columna.TELEFONO_CONTACTO))
+                    .esPrincipal(fila.getBoolean(Columna.ES_PRINCIPAL))
+                    .activa(fila.getBoolean(Columna.ACTIVA))
+                    .fechaCreacion(fila.getLocalDateTime(Columna.FECHA_CREACION))
+                    .fechaActualizacion(fila.getLocalDateTime(Columna.FECHA_ACTUALIZACION))
+                    .build());
 
     @Override
     public Boolean crearDireccion(DireccionRequest request) {
@@ -63,7 +64,7 @@ public class DireccionRespositoryImpl implements DireccionRespository {
     public List<DireccionResponse> listarDirecciones(Long usuarioId) {
         String sql = "SELECT * FROM direccion_usuario WHERE usuario_id = ? AND activa = TRUE";
         try {
-            return jdbcTemplate.query(sql, direccionRowMapper, usuarioId);
+            return jdbcTemplate.query(sql, DIRECCION.porConsulta(), usuarioId);
         } catch (Exception e) {
             System.out.println(e.getMessage());
             throw new DatabaseException("error al listar las direcciones");
@@ -74,9 +75,7 @@ public class DireccionRespositoryImpl implements DireccionRespository {
     public DireccionResponse obtenerDireccion(Long id) {
         String sql = "SELECT * FROM direccion_usuario WHERE id = ? AND activa = TRUE";
         try {
-            return jdbcTemplate.queryForObject(sql, direccionRowMapper, id);
-        } catch (EmptyResultDataAccessException e) {
-            return null;
+            return jdbcTemplate.query(sql, DIRECCION.porConsulta(), id).stream().findFirst().orElse(null);
         } catch (Exception e) {
             System.out.println(e.getMessage());
             throw new DatabaseException("error al obtener la direccion");
@@ -0,0 +1,95 @@
+package com.web.prime_drip_club.repository.impl;
+
+import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.models.ProductoCambio;
+import com.web.prime_drip_club.repository.ProductoCambioRepository;
+import com.web.prime_drip_club.repository.mapper.MapeadorIndexado;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductoCambioRepositoryImpl implements ProductoCambioRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private enum Columna {
+        VERSION, PRODUCTO_ID, ELIMINADO
+    }
+
+    private static final MapeadorIndexado<Columna, ProductoCambio> CAMBIO = new MapeadorIndexado<>(Columna.class,
+            fila -> ProductoCambio.builder()
+                    .version(fila.getLong(Columna.VERSION))
+                    .productoId(fila.getLongONulo(Columna.PRODUCTO_ID))
+                    .eliminado(fila.getBoolean(Columna.ELIMINADO))
+                    .build());
+
+    @Override
+    public List<ProductoCambio> findDesde(long version, int limite) {
+        String sql = "SELECT version, producto_id, eliminado FROM producto_cambio " +
+                "WHERE version > ? ORDER BY version LIMIT ?";
+        try {
+            return jdbcTemplate.query(sql, CAMBIO.porConsulta(), version, limite);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener cambios de productos: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long versionActual() {
+        return leerVersion("producto_cambio");
+    }
+
+    @Override
+    public long versionCompactada() {
+        return leerVersion("producto_cambio_compactado");
+    }
+
+    @Override
+    public long versionMasAntiguaQue(Duration antiguedad) {
+        String sql = "SELECT COALESCE(MAX(version), 0) FROM producto_cambio " +
+                "WHERE fecha < CURRENT_TIMESTAMP(3) - INTERVAL ? SECOND";
+        try {
+            Long version = jdbcTemplate.queryForObject(sql, Long.class, antiguedad.toSeconds());
+            return version != null ? version : 0;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al buscar cambios antiguos: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void marcarCompactado(long version) {
+        String sql = "UPDATE cache_version SET version = GREATEST(version, ?) " +
+                "WHERE region = 'producto_cambio_compactado'";
+        try {
+            jdbcTemplate.update(sql, version);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al marcar la compactación de cambios: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int deleteHasta(long version, int limite) {
+        String sql = "DELETE FROM producto_cambio WHERE version <= ? ORDER BY version LIMIT ?";
+        try {
+            return jdbcTemplate.update(sql, version, limite);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al compactar cambios de productos: " + e.getMessage(), e);
+        }
+    }
+
+    private long leerVersion(String region) {
+        String sql = "SELECT version FROM cache_version WHERE region = ?";
+        try {
+            return jdbcTemplate.queryForList(sql, Long.class, region).stream()
+                    .findFirst()
+                    .orElse(0L);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al leer la versión de " + region + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,20 +1,39 @@
 package com.web.prime_drip_club.repository.impl;
 
 import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.models.EtiquetaProducto;
 import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.models.SexoProducto;
 import com.web.prime_drip_club.repository.ProductoRepository;
+import com.web.prime_drip_club.repository.mapper.MapeadorIndexado;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.io.UncheckedIOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
@@ -22,45 +41,92 @@ public class ProductoRepositoryImpl implements ProductoRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    private Producto mapRowToProducto(ResultSet rs) throws SQLException {
-        String etiquetaValor = rs.getString("etiqueta");
-        String sexoValor = rs.getString("sexo");
-        return Producto.builder()
-                .id(rs.getLong("id"))
-                .nombre(rs.getString("nombre"))
-                .descripcion(rs.getString("descripcion"))
-                .precio(rs.getBigDecimal("precio"))
-                .stock(rs.getInt("stock"))
-                .marca(rs.getString("marca"))
-                .imagenUrl(rs.getString("imagen_url"))
-                .activo(rs.getBoolean("activo"))
-                .categoriaId(rs.getLong("categoria_id"))
-                .etiqueta(
-                        etiquetaValor != null ? com.web.prime_drip_club.models.EtiquetaProducto.fromValor(etiquetaValor)
-                                : null)
-                .sexo(
-                        sexoValor != null ? com.web.prime_drip_club.models.SexoProducto.fromValor(sexoValor)
-                                : null)
-                .isFeatured(rs.getBoolean("is_featured"))
-                .fechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime())
-                .build();
+    /* asigna stock (2 parámetros) y marca stock_actualizado solo si el valor cambia */
+    private static final String SET_STOCK =
+            "stock_actualizado = IF(stock <> ?, CURRENT_TIMESTAMP(3), stock_actualizado), stock = ?";
+
+    /* máximo de parámetros por consulta IN (...) en findByIds */
+    private static final int TAMANO_BLOQUE_IDS = 500;
+
+    /* columnas de la proyección card: todas menos descripcion (TEXT) */
+    private static final String COLUMNAS_CARD = "id, nombre, precio, stock, marca, imagen_url, activo, " +
+            "categoria_id, etiqueta, sexo, is_featured, fecha_creacion";
+
+    private enum Columna {
+        ID, NOMBRE, DESCRIPCION, PRECIO, STOCK, MARCA, IMAGEN_URL, ACTIVO,
+        CATEGORIA_ID, ETIQUETA, SEXO, IS_FEATURED, FECHA_CREACION
     }
 
+    private static final MapeadorIndexado<Columna, Producto> PRODUCTO = new MapeadorIndexado<>(Columna.class,
+            fila -> Producto.builder()
+                    .id(fila.getLong(Columna.ID))
+                    .nombre(fila.getString(Columna.NOMBRE))
+                    .descripcion(fila.getString(Columna.DESCRIPCION))
+                    .precio(fila.getBigDecimal(Columna.PRECIO))
+                    .stock(fila.getInt(Columna.STOCK))
+                    .marca(fila.getString(Columna.MARCA))
+                    .imagenUrl(fila.getString(Columna.IMAGEN_URL))
+                    .activo(fila.getBoolean(Columna.ACTIVO))
+                    .categoriaId(fila.getLong(Columna.CATEGORIA_ID))
+                    .etiqueta(fila.getEnum(Columna.ETIQUETA, EtiquetaProducto::fromValor))
+                    .sexo(fila.getEnum(Columna.SEXO, SexoProducto::fromValor))
+                    .isFeatured(fila.getBoolean(Columna.IS_FEATURED))
+                    .fechaCreacion(fila.getLocalDateTime(Columna.FECHA_CREACION))
+                    .build());
+
+    /* COLUMNAS_CARD: todo menos la descripción */
+    private static final MapeadorIndexado<Columna, Producto> CARD = new MapeadorIndexado<>(Columna.class,
+            fila -> Producto.builder()
+                    .id(fila.getLong(Columna.ID))
+                    .nombre(fila.getString(Columna.NOMBRE))
+                    .precio(fila.getBigDecimal(Columna.PRECIO))
+                    .stock(fila.getInt(Columna.STOCK))
+                    .marca(fila.getString(Columna.MARCA))
+                    .imagenUrl(fila.getString(Columna.IMAGEN_URL))
+                    .activo(fila.getBoolean(Columna.ACTIVO))
+                    .categoriaId(fila.getLong(Columna.CATEGORIA_ID))
+                    .etiqueta(fila.getEnum(Columna.ETIQUETA, EtiquetaProducto::fromValor))
+                    .sexo(fila.getEnum(Columna.SEXO, SexoProducto::fromValor))
+                    .isFeatured(fila.getBoolean(Columna.IS_FEATURED))
+                    .fechaCreacion(fila.getLocalDateTime(Columna.FECHA_CREACION))
+                    .build());
+
     @Override
     public List<Producto> findAll() {
         String sql = "SELECT * FROM producto ORDER BY fecha_creacion DESC";
         try {
-            return jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToProducto(rs));
+            return jdbcTemplate.query(sql, PRODUCTO.porConsulta());
         } catch (Exception e) {
             throw new DatabaseException("Error al obtener productos: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Usa un JdbcTemplate propio con fetchSize Integer.MIN_VALUE, que en el
+     * driver de MySQL activa el cursor de streaming (forward-only, una fila
+     * cada vez) en lugar de cargar el ResultSet completo en memoria.
+     */
+    @Override
+    public void forEach(Consumer<Producto> consumidor) {
+        String sql = "SELECT * FROM producto ORDER BY id";
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        RowMapper<Producto> mapper = PRODUCTO.porConsulta();
+        try {
+            streaming.query(sql, (RowCallbackHandler) rs -> consumidor.accept(mapper.mapRow(rs, 0)));
+        } catch (UncheckedIOException e) {
+            // error al escribir en el consumidor (p. ej. el cliente cortó la descarga)
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al recorrer productos: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public List<Producto> findByActivo(Boolean activo) {
         String sql = "SELECT * FROM producto WHERE activo = ? ORDER BY fecha_creacion DESC";
         try {
-            return jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToProducto(rs), activo);
+            return jdbcTemplate.query(sql, PRODUCTO.porConsulta(), activo);
         } catch (Exception e) {
             throw new DatabaseException("Error al obtener productos activos: " + e.getMessage(), e);
         }
@@ -70,20 +136,128 @@ public class ProductoRepositoryImpl implements ProductoRepository {
     public List<Producto> findByCategoriaId(Long categoriaId) {
         String sql = "SELECT * FROM producto WHERE categoria_id = ? ORDER BY fecha_creacion DESC";
         try {
-            return jdbcTemplate.query(sql, (rs, rowNum) -> mapRowToProducto(rs), categoriaId);
+            return jdbcTemplate.query(sql, PRODUCTO.porConsulta(), categoriaId);
         } catch (Exception e) {
             throw new DatabaseException("Error al obtener productos por categoría: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public List<Producto> findCards(Boolean activo) {
+        String sql = "SELECT " + COLUMNAS_CARD + " FROM producto" +
+                (activo != null ? " WHERE activo = ?" : "") +
+                " ORDER BY fecha_creacion DESC, id DESC";
+        try {
+            return activo != null
+                    ? jdbcTemplate.query(sql, CARD.porConsulta(), activo)
+                    : jdbcTemplate.query(sql, CARD.porConsulta());
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener productos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * ROW_NUMBER() numera las filas de cada categoría recorriendo
+     * idx_producto_activo_categoria_fecha (V18); el filtro exterior se queda
+     * con las N primeras de cada una.
+     */
+    @Override
+    public List<Producto> findCardsRecientesPorCategoria(int porCategoria) {
+        String sql = "SELECT " + COLUMNAS_CARD + " FROM (" +
+                "SELECT " + COLUMNAS_CARD + ", ROW_NUMBER() OVER (" +
+                "PARTITION BY categoria_id ORDER BY fecha_creacion DESC, id DESC) AS posicion " +
+                "FROM producto WHERE activo = TRUE) ranking " +
+                "WHERE posicion <= ? ORDER BY categoria_id, posicion";
+        try {
+            return jdbcTemplate.query(sql, CARD.porConsulta(), porCategoria);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener productos por categoría: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Usa los índices idx_producto_activo_fecha / idx_producto_fecha (V15):
+     * cada página es un range scan que arranca en el cursor, sin OFFSET.
+     */
+    @Override
+    public List<Producto> findCardPagina(Boolean activo, Producto despuesDe, int limite) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNAS_CARD + " FROM producto WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (activo != null) {
+            sql.append(" AND activo = ?");
+            params.add(activo);
+        }
+        if (despuesDe != null) {
+            Timestamp fecha = Timestamp.valueOf(despuesDe.getFechaCreacion());
+            sql.append(" AND (fecha_creacion < ? OR (fecha_creacion = ? AND id < ?))");
+            params.add(fecha);
+            params.add(fecha);
+            params.add(despuesDe.getId());
+        }
+        sql.append(" ORDER BY fecha_creacion DESC, id DESC LIMIT ?");
+        params.add(limite);
+        try {
+            return jdbcTemplate.query(sql.toString(), CARD.porConsulta(), params.toArray());
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener página de productos: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Optional<Producto> findById(Long id) {
         String sql = "SELECT * FROM producto WHERE id = ?";
         try {
-            Producto producto = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> mapRowToProducto(rs), id);
-            return Optional.ofNullable(producto);
+            // query + findFirst: un ID inexistente no lanza ni captura excepciones
+            return jdbcTemplate.query(sql, PRODUCTO.porConsulta(), id).stream().findFirst();
         } catch (Exception e) {
-            return Optional.empty();
+            throw new DatabaseException("Error al buscar producto por ID: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Long> findIds() {
+        String sql = "SELECT id FROM producto";
+        try {
+            return jdbcTemplate.queryForList(sql, Long.class);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener IDs de productos: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Producto> findByIds(Collection<Long> ids) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Producto> productos = new ArrayList<>(unicos.size());
+        try {
+            for (int desde = 0; desde < unicos.size(); desde += TAMANO_BLOQUE_IDS) {
+                List<Long> bloque = unicos.subList(desde, Math.min(desde + TAMANO_BLOQUE_IDS, unicos.size()));
+                String marcadores = String.join(", ", Collections.nCopies(bloque.size(), "?"));
+                String sql = "SELECT * FROM producto WHERE id IN (" + marcadores + ")";
+                productos.addAll(jdbcTemplate.query(sql, PRODUCTO.porConsulta(), bloque.toArray()));
+            }
+            return productos;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener productos por IDs: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Long, Long> findUnidadesVendidas() {
+        String sql = """
+                SELECT dp.producto_id, SUM(dp.cantidad) AS unidades
+                FROM detalle_pedido dp
+                INNER JOIN pedido p ON p.id = dp.pedido_id
+                WHERE p.estado NOT IN ('CANCELADO', 'DEVUELTO', 'REEMBOLSADO')
+                GROUP BY dp.producto_id
+                """;
+        try {
+            Map<Long, Long> unidades = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                unidades.put(rs.getLong("producto_id"), rs.getLong("unidades"));
+            });
+            return unidades;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener unidades vendidas: " + e.getMessage(), e);
         }
     }
 
@@ -114,16 +288,61 @@ public class ProductoRepositoryImpl implements ProductoRepository {
             if (key == null) {
                 throw new DatabaseException("Error al guardar producto: No se generó un ID");
             }
+            registrarCambios(List.of(key.longValue()), false);
             return key.longValue();
         } catch (Exception e) {
             throw new DatabaseException("Error al guardar producto: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public int saveAll(List<Producto> productos) {
+        String sql = "INSERT INTO producto (nombre, descripcion, precio, stock, marca, " +
+                "imagen_url, activo, categoria_id, etiqueta, sexo, is_featured, fecha_creacion) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())";
+        try {
+            int[] filas = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Producto producto = productos.get(i);
+                    ps.setString(1, producto.getNombre());
+                    ps.setString(2, producto.getDescripcion());
+                    ps.setBigDecimal(3, producto.getPrecio());
+                    ps.setInt(4, producto.getStock());
+                    ps.setString(5, producto.getMarca());
+                    ps.setString(6, producto.getImagenUrl());
+                    ps.setBoolean(7, producto.getActivo());
+                    ps.setLong(8, producto.getCategoriaId());
+                    ps.setString(9, producto.getEtiqueta() != null ? producto.getEtiqueta().getValor() : null);
+                    ps.setString(10, producto.getSexo() != null ? producto.getSexo().getValor() : null);
+                    ps.setBoolean(11, producto.getIsFeatured() != null ? producto.getIsFeatured() : false);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return productos.size();
+                }
+            });
+            int insertados = 0;
+            for (int f : filas) {
+                // con rewriteBatchedStatements el driver devuelve SUCCESS_NO_INFO (-2)
+                insertados += f == Statement.SUCCESS_NO_INFO ? 1 : f;
+            }
+            if (insertados > 0) {
+                // el lote no devuelve los IDs generados: los clientes resincronizan
+                registrarCambios(Collections.singletonList(null), false);
+            }
+            return insertados;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al guardar productos en lote: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Boolean update(Producto producto) {
+        // stock_actualizado va antes que stock: MySQL evalúa el SET de izquierda a derecha
         String sql = "UPDATE producto SET nombre = ?, descripcion = ?, precio = ?, " +
-                "stock = ?, marca = ?, imagen_url = ?, activo = ?, categoria_id = ?, " +
+                SET_STOCK + ", marca = ?, imagen_url = ?, activo = ?, categoria_id = ?, " +
                 "etiqueta = ?, sexo = ?, is_featured = ? WHERE id = ?";
         try {
             int rows = jdbcTemplate.update(sql,
@@ -131,6 +350,7 @@ public class ProductoRepositoryImpl implements ProductoRepository {
                     producto.getDescripcion(),
                     producto.getPrecio(),
                     producto.getStock(),
+                    producto.getStock(),
                     producto.getMarca(),
                     producto.getImagenUrl(),
                     producto.getActivo(),
@@ -139,20 +359,212 @@ public class ProductoRepositoryImpl implements ProductoRepository {
                     producto.getSexo() != null ? producto.getSexo().getValor() : null,
                     producto.getIsFeatured() != null ? producto.getIsFeatured() : false,
                     producto.getId());
+            if (rows > 0) {
+                registrarCambios(List.of(producto.getId()), false);
+            }
             return rows > 0;
         } catch (Exception e) {
             throw new DatabaseException("Error al actualizar producto: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public List<Long> updateParcial(List<Producto> cambios) {
+        // SQL -> cambios que modifican exactamente esas columnas
+        Map<String, List<Producto>> grupos = new LinkedHashMap<>();
+        for (Producto cambio : cambios) {
+            List<String> columnas = new ArrayList<>(3);
+            if (cambio.getPrecio() != null) {
+                columnas.add("precio = ?");
+            }
+            if (cambio.getStock() != null) {
+                columnas.add(SET_STOCK);
+            }
+            if (cambio.getActivo() != null) {
+                columnas.add("activo = ?");
+            }
+            String sql = "UPDATE producto SET " + String.join(", ", columnas) + " WHERE id = ?";
+            grupos.computeIfAbsent(sql, k -> new ArrayList<>()).add(cambio);
+        }
+        List<Long> actualizados = new ArrayList<>(cambios.size());
+        try {
+            for (Map.Entry<String, List<Producto>> entrada : grupos.entrySet()) {
+                List<Producto> grupo = entrada.getValue();
+                int[][] filas = jdbcTemplate.batchUpdate(entrada.getKey(), grupo, grupo.size(), (ps, cambio) -> {
+                    int i = 1;
+                    if (cambio.getPrecio() != null) {
+                        ps.setBigDecimal(i++, cambio.getPrecio());
+                    }
+                    if (cambio.getStock() != null) {
+                        ps.setInt(i++, cambio.getStock());
+                        ps.setInt(i++, cambio.getStock());
+                    }
+                    if (cambio.getActivo() != null) {
+                        ps.setBoolean(i++, cambio.getActivo());
+                    }
+                    ps.setLong(i, cambio.getId());
+                });
+                // filas encontradas (no solo modificadas): 0 es un ID que no existe
+                int k = 0;
+                for (int[] lote : filas) {
+                    for (int cantidad : lote) {
+                        if (cantidad > 0 || cantidad == Statement.SUCCESS_NO_INFO) {
+                            actualizados.add(grupo.get(k).getId());
+                        }
+                        k++;
+                    }
+                }
+            }
+            if (!actualizados.isEmpty()) {
+                registrarCambios(actualizados, false);
+            }
+            return actualizados;
+        } catch (Exception e) {
+            throw new DatabaseException("Error al actualizar productos en lote: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int marcarAgotados(int limite) {
+        try {
+            return actualizarEtiqueta(EtiquetaProducto.AGOTADO.getValor(),
+                    "stock = 0 AND (etiqueta IS NULL OR etiqueta = ?)", limite,
+                    EtiquetaProducto.ULTIMAS_UNIDADES.getValor());
+        } catch (Exception e) {
+            throw new DatabaseException("Error al marcar productos agotados: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int marcarUltimasUnidades(int umbral, int limite) {
+        try {
+            return actualizarEtiqueta(EtiquetaProducto.ULTIMAS_UNIDADES.getValor(),
+                    "stock BETWEEN 1 AND ? AND (etiqueta IS NULL OR etiqueta = ?)", limite,
+                    umbral, EtiquetaProducto.AGOTADO.getValor());
+        } catch (Exception e) {
+            throw new DatabaseException("Error al marcar últimas unidades: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int limpiarEtiquetasStock(int umbral, int limite) {
+        try {
+            return actualizarEtiqueta(null, "etiqueta IN (?, ?) AND stock > ?", limite,
+                    EtiquetaProducto.AGOTADO.getValor(), EtiquetaProducto.ULTIMAS_UNIDADES.getValor(), umbral);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al limpiar etiquetas de stock: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cambia la etiqueta de hasta limite productos que cumplen la condición.
+     * Primero lee sus IDs para poder anotarlos en producto_cambio; el UPDATE
+     * repite la condición, así que una fila que cambió entre medias no se toca.
+     */
+    private int actualizarEtiqueta(String etiqueta, String condicion, int limite, Object... parametros) {
+        List<Object> argumentos = new ArrayList<>(List.of(parametros));
+        argumentos.add(limite);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM producto WHERE " + condicion + " LIMIT ?", Long.class, argumentos.toArray());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> valores = new ArrayList<>(ids.size() + parametros.length + 1);
+        valores.add(etiqueta);
+        valores.addAll(ids);
+        valores.addAll(List.of(parametros));
+        int filas = jdbcTemplate.update("UPDATE producto SET etiqueta = ? WHERE id IN (" + marcadores + ") AND "
+                + condicion, valores.toArray());
+        registrarCambios(ids, false);
+        return filas;
+    }
+
+    @Override
+    public List<Producto> findCardsStockCambiadoDesde(LocalDateTime desde) {
+        String sql = "SELECT " + COLUMNAS_CARD + " FROM producto WHERE stock_actualizado > ? " +
+                "ORDER BY stock_actualizado";
+        try {
+            return jdbcTemplate.query(sql, CARD.porConsulta(), Timestamp.valueOf(desde));
+        } catch (Exception e) {
+            throw new DatabaseException("Error al obtener cambios de stock: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public LocalDateTime ahora() {
+        try {
+            return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP(3)", Timestamp.class).toLocalDateTime();
+        } catch (Exception e) {
+            throw new DatabaseException("Error al leer la hora de la BD: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Boolean delete(Long id) {
         String sql = "DELETE FROM producto WHERE id = ?";
         try {
             int rows = jdbcTemplate.update(sql, id);
+            if (rows > 0) {
+                registrarCambios(List.of(id), true);
+            }
             return rows > 0;
         } catch (Exception e) {
             throw new DatabaseException("Error al eliminar producto: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Anota los productos en producto_cambio. Las versiones se reservan en la
+     * fila 'producto_cambio' de cache_version; su bloqueo dura hasta el commit,
+     * de modo que las versiones se confirman en orden. Sin transacción en
+     * curso, la reserva y las inserciones se confirman juntas.
+     *
+     * @param ids productos afectados; un null anota una carga masiva
+     */
+    private void registrarCambios(List<Long> ids, boolean eliminado) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try (PreparedStatement reserva = connection.prepareStatement(
+                         "UPDATE cache_version SET version = LAST_INSERT_ID(version + ?) WHERE region = 'producto_cambio'");
+                 PreparedStatement insercion = connection.prepareStatement(
+                         "INSERT INTO producto_cambio (version, producto_id, eliminado) VALUES (?, ?, ?)");
+                 Statement consulta = connection.createStatement()) {
+                reserva.setInt(1, ids.size());
+                reserva.executeUpdate();
+                long version;
+                try (ResultSet rs = consulta.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    rs.next();
+                    version = rs.getLong(1) - ids.size() + 1;
+                }
+                for (Long id : ids) {
+                    insercion.setLong(1, version++);
+                    if (id != null) {
+                        insercion.setLong(2, id);
+                    } else {
+                        insercion.setNull(2, Types.BIGINT);
+                    }
+                    insercion.setBoolean(3, eliminado);
+                    insercion.addBatch();
+                }
+                insercion.executeBatch();
+                if (autoCommit) {
+                    connection.commit();
+                }
+                return null;
+            } catch (SQLException e) {
+                if (autoCommit) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        });
+    }
 }
\ No newline at end of file
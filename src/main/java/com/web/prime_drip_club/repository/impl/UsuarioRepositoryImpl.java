@@ -1,7 +1,6 @@
 package com.web.prime_drip_club.repository.impl;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Optional;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -10,7 +9,10 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import org.springframework.stereotype.Repository;
 import com.web.prime_drip_club.models.Usuario;
+import com.web.prime_drip_club.models.UsuarioConRoles;
 import com.web.prime_drip_club.repository.UsuarioRepository;
+import com.web.prime_drip_club.repository.mapper.FilaIndexada;
+import com.web.prime_drip_club.repository.mapper.MapeadorIndexado;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -24,23 +26,25 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    public Usuario mapRowUsuario(ResultSet rs) throws SQLException {
-        return Usuario.builder()
-                .id(rs.getLong("id"))
-                .nombre(rs.getString("nombre"))
-                .email(rs.getString("email"))
-                .telefono(rs.getString("telefono"))
-                .password(rs.getString("password"))
-                .activo(rs.getBoolean("activo"))
-                .fechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime())
-                .build();
+    private enum Columna {
+        ID, NOMBRE, EMAIL, TELEFONO, PASSWORD, ACTIVO, FECHA_CREACION, ROL
     }
 
+    private static final MapeadorIndexado<Columna, Usuario> USUARIO = new MapeadorIndexado<>(Columna.class,
+            fila -> Usuario.builder()
+                    .id(fila.getLong(Columna.ID))
+                    .nombre(fila.getString(Columna.NOMBRE))
+                    .email(fila.getString(Columna.EMAIL))
+                    .telefono(fila.getString(Columna.TELEFONO))
+                    .password(fila.getString(Columna.PASSWORD))
+                    .activo(fila.getBoolean(Columna.ACTIVO))
+                    .fechaCreacion(fila.getLocalDateTime(Columna.FECHA_CREACION))
+                    .build());
+
     public Optional<Usuario> findByEmail(String email) {
         String sql = "SELECT * FROM usuario WHERE email = ?";
         try {
-            Usuario user = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> mapRowUsuario(rs), email);
-            return Optional.ofNullable(user);
+            return jdbcTemplate.query(sql, USUARIO.porConsulta(), email).stream().findFirst();
         } catch (Exception e) {
             throw new DatabaseException("Error al buscar el usuario por email: " + e.getMessage(), e);
         }
@@ -89,11 +93,41 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
     public Optional<Usuario> findById(Long id) {
         String sql = "SELECT * FROM usuario WHERE id = ?";
         try {
-            Usuario user = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> mapRowUsuario(rs), id);
-            return Optional.ofNullable(user);
+            return jdbcTemplate.query(sql, USUARIO.porConsulta(), id).stream().findFirst();
         } catch (Exception e) {
             throw new DatabaseException("Error al buscar el usuario por ID: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public Optional<UsuarioConRoles> findConRolesByEmail(String email) {
+        String sql = """
+                SELECT u.*, r.nombre AS rol
+                FROM usuario u
+                LEFT JOIN usuario_rol ur ON ur.usuario_id = u.id
+                LEFT JOIN rol r ON r.id = ur.rol_id
+                WHERE u.email = ?
+                """;
+        try {
+            UsuarioConRoles resultado = jdbcTemplate.query(sql, rs -> {
+                FilaIndexada<Columna> fila = FilaIndexada.de(rs, Columna.class);
+                UsuarioConRoles usuario = null;
+                // una fila por rol; sin roles, una sola fila con rol NULL
+                while (rs.next()) {
+                    if (usuario == null) {
+                        usuario = new UsuarioConRoles(USUARIO.leer(fila), new ArrayList<>());
+                    }
+                    String rol = fila.getString(Columna.ROL);
+                    if (rol != null) {
+                        usuario.getRoles().add(rol);
+                    }
+                }
+                return usuario;
+            }, email);
+            return Optional.ofNullable(resultado);
+        } catch (Exception e) {
+            throw new DatabaseException("Error al buscar el usuario con sus roles: " + e.getMessage(), e);
+        }
+    }
+
 }
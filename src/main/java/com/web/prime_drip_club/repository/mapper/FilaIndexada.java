@@ -0,0 +1,114 @@
+package com.web.prime_drip_club.repository.mapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Acceso por índice a las columnas de un ResultSet.
+ * <p>
+ * Las columnas se declaran con un enum cuyo nombre en minúsculas es la
+ * etiqueta SQL (FECHA_CREACION -> "fecha_creacion"). Los índices se
+ * resuelven una sola vez con los metadatos del ResultSet; después cada
+ * lectura es un acceso por posición, sin buscar la columna por nombre en
+ * cada fila. Las columnas del enum que la consulta no trae quedan sin
+ * índice y leerlas lanza SQLException.
+ * </p>
+ *
+ * @param <C> enum con las columnas que se pueden leer
+ */
+public final class FilaIndexada<C extends Enum<C>> {
+
+    private final ResultSet rs;
+    private final int[] indices;
+
+    private FilaIndexada(ResultSet rs, int[] indices) {
+        this.rs = rs;
+        this.indices = indices;
+    }
+
+    /**
+     * Resuelve los índices de las columnas del enum en este ResultSet.
+     */
+    public static <C extends Enum<C>> FilaIndexada<C> de(ResultSet rs, Class<C> columnas) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Map<String, Integer> porEtiqueta = new HashMap<>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            // si una etiqueta se repite gana la primera, como en ResultSet.findColumn
+            porEtiqueta.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        C[] constantes = columnas.getEnumConstants();
+        int[] indices = new int[constantes.length];
+        for (C columna : constantes) {
+            indices[columna.ordinal()] = porEtiqueta.getOrDefault(columna.name().toLowerCase(Locale.ROOT), 0);
+        }
+        return new FilaIndexada<>(rs, indices);
+    }
+
+    boolean esDe(ResultSet otro) {
+        return rs == otro;
+    }
+
+    public boolean tiene(C columna) {
+        return indices[columna.ordinal()] > 0;
+    }
+
+    private int indice(C columna) throws SQLException {
+        int indice = indices[columna.ordinal()];
+        if (indice == 0) {
+            throw new SQLException("La consulta no incluye la columna " + columna.name().toLowerCase(Locale.ROOT));
+        }
+        return indice;
+    }
+
+    public String getString(C columna) throws SQLException {
+        return rs.getString(indice(columna));
+    }
+
+    /** Igual que ResultSet.getLong: 0 si la columna es NULL */
+    public long getLong(C columna) throws SQLException {
+        return rs.getLong(indice(columna));
+    }
+
+    /** null si la columna es NULL */
+    public Long getLongONulo(C columna) throws SQLException {
+        long valor = rs.getLong(indice(columna));
+        return rs.wasNull() ? null : valor;
+    }
+
+    /** Igual que ResultSet.getInt: 0 si la columna es NULL */
+    public int getInt(C columna) throws SQLException {
+        return rs.getInt(indice(columna));
+    }
+
+    /** Igual que ResultSet.getBoolean: false si la columna es NULL */
+    public boolean getBoolean(C columna) throws SQLException {
+        return rs.getBoolean(indice(columna));
+    }
+
+    public BigDecimal getBigDecimal(C columna) throws SQLException {
+        return rs.getBigDecimal(indice(columna));
+    }
+
+    /** Conversión directa del driver, sin pasar por java.sql.Timestamp */
+    public LocalDateTime getLocalDateTime(C columna) throws SQLException {
+        return rs.getObject(indice(columna), LocalDateTime.class);
+    }
+
+    /**
+     * Decodifica una columna de texto a enum.
+     *
+     * @param decodificador normalmente el fromValor del enum
+     * @return null si la columna es NULL
+     */
+    public <E extends Enum<E>> E getEnum(C columna, Function<String, E> decodificador) throws SQLException {
+        String valor = rs.getString(indice(columna));
+        return valor != null ? decodificador.apply(valor) : null;
+    }
+}
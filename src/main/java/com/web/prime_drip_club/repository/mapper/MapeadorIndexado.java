@@ -0,0 +1,57 @@
+package com.web.prime_drip_club.repository.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Definición reutilizable de cómo convertir una fila en un objeto, usando
+ * FilaIndexada. Es inmutable y se declara como constante del repositorio;
+ * cada consulta pide su propio RowMapper con {@link #porConsulta()}, que
+ * resuelve los índices de columna en la primera fila y los reutiliza en
+ * las siguientes.
+ *
+ * @param <C> enum de columnas
+ * @param <T> tipo resultante
+ */
+public final class MapeadorIndexado<C extends Enum<C>, T> {
+
+    @FunctionalInterface
+    public interface Lector<C extends Enum<C>, T> {
+        T leer(FilaIndexada<C> fila) throws SQLException;
+    }
+
+    private final Class<C> columnas;
+    private final Lector<C, T> lector;
+
+    public MapeadorIndexado(Class<C> columnas, Lector<C, T> lector) {
+        this.columnas = columnas;
+        this.lector = lector;
+    }
+
+    /**
+     * RowMapper para una sola consulta (no compartir entre hilos).
+     */
+    public RowMapper<T> porConsulta() {
+        return new RowMapper<>() {
+            private FilaIndexada<C> fila;
+
+            @Override
+            public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+                if (fila == null || !fila.esDe(rs)) {
+                    fila = FilaIndexada.de(rs, columnas);
+                }
+                return lector.leer(fila);
+            }
+        };
+    }
+
+    /**
+     * Lee la fila actual de un ResultSet que ya se está recorriendo
+     * (p. ej. dentro de un ResultSetExtractor).
+     */
+    public T leer(FilaIndexada<C> fila) throws SQLException {
+        return lector.leer(fila);
+    }
+}
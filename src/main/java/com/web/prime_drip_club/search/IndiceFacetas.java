@@ -0,0 +1,364 @@
+package com.web.prime_drip_club.search;
+
+import com.web.prime_drip_club.cache.CatalogoProductos;
+import com.web.prime_drip_club.cache.CatalogoSnapshot;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.SexoProducto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Índices de bits por valor de faceta sobre el catálogo de productos activos.
+ * <p>
+ * Cada producto recibe un ordinal denso (su posición en el snapshot, que ya
+ * está ordenado por más recientes). Cada valor de faceta guarda un BitSet con
+ * los ordinales que lo tienen, de modo que filtrar es hacer AND/OR de bits y
+ * ordenar es recorrer un arreglo de ordinales precalculado.
+ * </p>
+ * <p>
+ * Se reconstruye en memoria cuando cambia la versión del catálogo. La
+ * popularidad (unidades vendidas) sale de una agregación sobre los pedidos,
+ * así que no se consulta al filtrar: un job la refresca cada
+ * productos.facetas.popularidad y mientras tanto se reutiliza el último mapa.
+ * </p>
+ */
+@Slf4j
+@Component
+public class IndiceFacetas {
+
+    public static final String FACETA_CATEGORIA = "categoriaId";
+    public static final String FACETA_SEXO = "sexo";
+    public static final String FACETA_ETIQUETA = "etiqueta";
+    public static final String FACETA_MARCA = "marca";
+    public static final String FACETA_DESTACADO = "destacado";
+
+    private final CatalogoProductos catalogoProductos;
+    private final ProductoRepository productoRepository;
+
+    private volatile Facetas actual;
+    /* último resultado de findUnidadesVendidas; vacío hasta la primera carga */
+    private volatile Map<Long, Long> unidadesVendidas = Map.of();
+
+    public IndiceFacetas(CatalogoProductos catalogoProductos, ProductoRepository productoRepository) {
+        this.catalogoProductos = catalogoProductos;
+        this.productoRepository = productoRepository;
+    }
+
+    public enum Orden {
+        RECIENTES, PRECIO_ASC, PRECIO_DESC, POPULARIDAD;
+
+        public static Orden desde(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return RECIENTES;
+            }
+            return Orden.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Criterios ya resueltos. Una lista null o vacía no filtra esa faceta.
+     */
+    public record Criterios(
+            Collection<Long> categorias,
+            Collection<SexoProducto> sexos,
+            Collection<EtiquetaProducto> etiquetas,
+            Collection<String> marcas,
+            Boolean destacado,
+            BigDecimal precioMin,
+            BigDecimal precioMax,
+            Orden orden) {
+    }
+
+    public record Resultado(List<ProductoCardResponse> productos, int total, Map<String, Map<String, Integer>> facetas) {
+    }
+
+    public Resultado filtrar(Criterios criterios, int pagina, int size) {
+        return facetas().filtrar(criterios, pagina, size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarPopularidadAlArrancar() {
+        refrescarPopularidad();
+    }
+
+    /**
+     * Vuelve a leer las unidades vendidas y, si las facetas ya estaban
+     * construidas, las reconstruye aquí para que ninguna petición pague la
+     * reconstrucción. Si falla se sigue con el mapa anterior.
+     */
+    @Scheduled(fixedDelayString = "${productos.facetas.popularidad:PT15M}",
+            initialDelayString = "${productos.facetas.popularidad:PT15M}")
+    public void refrescarPopularidad() {
+        try {
+            unidadesVendidas = productoRepository.findUnidadesVendidas();
+        } catch (Exception e) {
+            log.warn("No se pudo cargar la popularidad de productos: {}", e.getMessage());
+            return;
+        }
+        if (actual != null) {
+            construir(catalogoProductos.snapshot());
+        }
+    }
+
+    private Facetas facetas() {
+        CatalogoSnapshot snapshot = catalogoProductos.snapshot();
+        Facetas facetas = actual;
+        if (facetas != null && facetas.vigente(snapshot, unidadesVendidas)) {
+            return facetas;
+        }
+        return construir(snapshot);
+    }
+
+    /* solo reagrupa el snapshot en memoria; nunca consulta la BD */
+    private synchronized Facetas construir(CatalogoSnapshot snapshot) {
+        Map<Long, Long> popularidad = unidadesVendidas;
+        Facetas facetas = actual;
+        if (facetas != null && facetas.vigente(snapshot, popularidad)) {
+            return facetas;
+        }
+        actual = new Facetas(snapshot, popularidad);
+        return actual;
+    }
+
+    private static final class Facetas {
+
+        private final long version;
+        private final List<ProductoCardResponse> productos;
+        private final Map<Long, Long> unidadesVendidas;
+
+        private final Map<Long, BitSet> porCategoria = new HashMap<>();
+        private final Map<SexoProducto, BitSet> porSexo = new LinkedHashMap<>();
+        private final Map<EtiquetaProducto, BitSet> porEtiqueta = new LinkedHashMap<>();
+        /* marca normalizada -> bits; se conserva la forma original para mostrarla */
+        private final Map<String, BitSet> porMarca = new HashMap<>();
+        private final Map<String, String> nombreMarca = new HashMap<>();
+        private final BitSet destacados;
+
+        /* ordinales ordenados por precio ascendente y precios en ese mismo orden */
+        private final int[] ordenPrecio;
+        private final BigDecimal[] preciosOrdenados;
+        private final int[] ordenPopularidad;
+
+        Facetas(CatalogoSnapshot snapshot, Map<Long, Long> unidadesVendidas) {
+            this.version = snapshot.version();
+            this.productos = snapshot.activos();
+            this.unidadesVendidas = unidadesVendidas;
+            int n = productos.size();
+            this.destacados = new BitSet(n);
+
+            for (int i = 0; i < n; i++) {
+                ProductoCardResponse producto = productos.get(i);
+                marcar(porCategoria, producto.getCategoriaId(), i);
+                marcar(porSexo, producto.getSexo(), i);
+                marcar(porEtiqueta, producto.getEtiqueta(), i);
+                if (producto.getMarca() != null && !producto.getMarca().isBlank()) {
+                    String clave = Tokenizador.normalizar(producto.getMarca().trim());
+                    marcar(porMarca, clave, i);
+                    nombreMarca.putIfAbsent(clave, producto.getMarca().trim());
+                }
+                if (Boolean.TRUE.equals(producto.getIsFeatured())) {
+                    destacados.set(i);
+                }
+            }
+
+            this.ordenPrecio = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparing((Integer i) -> productos.get(i).getPrecio(),
+                            Comparator.nullsLast(Comparator.naturalOrder())))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            this.preciosOrdenados = new BigDecimal[n];
+            for (int i = 0; i < n; i++) {
+                preciosOrdenados[i] = productos.get(ordenPrecio[i]).getPrecio();
+            }
+            // a igual popularidad, el más reciente primero (ordinal menor)
+            this.ordenPopularidad = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparingLong((Integer i) -> unidadesVendidas.getOrDefault(productos.get(i).getId(), 0L))
+                            .reversed()
+                            .thenComparingInt(Integer::intValue))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        boolean vigente(CatalogoSnapshot snapshot, Map<Long, Long> popularidad) {
+            return version == snapshot.version() && unidadesVendidas == popularidad;
+        }
+
+        private static <K> void marcar(Map<K, BitSet> indice, K valor, int ordinal) {
+            if (valor != null) {
+                indice.computeIfAbsent(valor, v -> new BitSet()).set(ordinal);
+            }
+        }
+
+        Resultado filtrar(Criterios criterios, int pagina, int size) {
+            int n = productos.size();
+
+            Map<String, BitSet> filtros = new LinkedHashMap<>();
+            agregar(filtros, FACETA_CATEGORIA, union(porCategoria, criterios.categorias()));
+            agregar(filtros, FACETA_SEXO, union(porSexo, criterios.sexos()));
+            agregar(filtros, FACETA_ETIQUETA, union(porEtiqueta, criterios.etiquetas()));
+            agregar(filtros, FACETA_MARCA, union(porMarca, criterios.marcas() == null ? null
+                    : criterios.marcas().stream().map(m -> Tokenizador.normalizar(m.trim())).toList()));
+            if (criterios.destacado() != null) {
+                BitSet bits = (BitSet) destacados.clone();
+                if (!criterios.destacado()) {
+                    bits.flip(0, n);
+                }
+                filtros.put(FACETA_DESTACADO, bits);
+            }
+            BitSet rangoPrecio = rangoPrecio(criterios.precioMin(), criterios.precioMax());
+
+            BitSet resultado = interseccion(filtros, null, rangoPrecio, n);
+
+            Map<String, Map<String, Integer>> conteos = new LinkedHashMap<>();
+            conteos.put(FACETA_CATEGORIA, contar(porCategoria, interseccion(filtros, FACETA_CATEGORIA, rangoPrecio, n), String::valueOf));
+            conteos.put(FACETA_SEXO, contar(porSexo, interseccion(filtros, FACETA_SEXO, rangoPrecio, n), SexoProducto::getValor));
+            conteos.put(FACETA_ETIQUETA, contar(porEtiqueta, interseccion(filtros, FACETA_ETIQUETA, rangoPrecio, n), EtiquetaProducto::getValor));
+            conteos.put(FACETA_MARCA, contar(porMarca, interseccion(filtros, FACETA_MARCA, rangoPrecio, n), nombreMarca::get));
+            BitSet baseDestacado = interseccion(filtros, FACETA_DESTACADO, rangoPrecio, n);
+            BitSet siDestacado = (BitSet) baseDestacado.clone();
+            siDestacado.and(destacados);
+            Map<String, Integer> conteoDestacado = new LinkedHashMap<>();
+            conteoDestacado.put("true", siDestacado.cardinality());
+            conteoDestacado.put("false", baseDestacado.cardinality() - siDestacado.cardinality());
+            conteos.put(FACETA_DESTACADO, conteoDestacado);
+
+            return new Resultado(paginar(resultado, criterios.orden(), pagina, size), resultado.cardinality(), conteos);
+        }
+
+        private static void agregar(Map<String, BitSet> filtros, String faceta, BitSet bits) {
+            if (bits != null) {
+                filtros.put(faceta, bits);
+            }
+        }
+
+        /* OR de los valores pedidos de una faceta; null si no se filtra por ella */
+        private static <K> BitSet union(Map<K, BitSet> indice, Collection<K> valores) {
+            if (valores == null || valores.isEmpty()) {
+                return null;
+            }
+            BitSet bits = new BitSet();
+            for (K valor : valores) {
+                BitSet delValor = indice.get(valor);
+                if (delValor != null) {
+                    bits.or(delValor);
+                }
+            }
+            return bits;
+        }
+
+        /* AND de todos los filtros excepto el de la faceta indicada */
+        private static BitSet interseccion(Map<String, BitSet> filtros, String excepto, BitSet rangoPrecio, int n) {
+            BitSet bits = new BitSet(n);
+            bits.set(0, n);
+            filtros.forEach((faceta, filtro) -> {
+                if (!faceta.equals(excepto)) {
+                    bits.and(filtro);
+                }
+            });
+            if (rangoPrecio != null) {
+                bits.and(rangoPrecio);
+            }
+            return bits;
+        }
+
+        private static <K> Map<String, Integer> contar(Map<K, BitSet> indice, BitSet base,
+                Function<K, String> etiqueta) {
+            Map<String, Integer> conteos = new LinkedHashMap<>();
+            indice.forEach((valor, bits) -> {
+                BitSet comun = (BitSet) base.clone();
+                comun.and(bits);
+                int cantidad = comun.cardinality();
+                if (cantidad > 0) {
+                    conteos.put(etiqueta.apply(valor), cantidad);
+                }
+            });
+            return conteos;
+        }
+
+        /* ordinales cuyo precio está en [min, max], por búsqueda binaria */
+        private BitSet rangoPrecio(BigDecimal min, BigDecimal max) {
+            if (min == null && max == null) {
+                return null;
+            }
+            int desde = min == null ? 0 : primeroMayorOIgual(min);
+            int hasta = max == null ? preciosOrdenados.length : primeroMayorQue(max);
+            BitSet bits = new BitSet(productos.size());
+            for (int i = desde; i < hasta; i++) {
+                bits.set(ordenPrecio[i]);
+            }
+            return bits;
+        }
+
+        private int primeroMayorOIgual(BigDecimal valor) {
+            int lo = 0;
+            int hi = preciosOrdenados.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (preciosOrdenados[mid] != null && preciosOrdenados[mid].compareTo(valor) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int primeroMayorQue(BigDecimal valor) {
+            int lo = 0;
+            int hi = preciosOrdenados.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (preciosOrdenados[mid] != null && preciosOrdenados[mid].compareTo(valor) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private List<ProductoCardResponse> paginar(BitSet resultado, Orden orden, int pagina, int size) {
+            // en long: pagina * size puede desbordar un int y volverse negativo
+            long saltar = (long) pagina * size;
+            if (saltar >= resultado.cardinality()) {
+                return List.of();
+            }
+            List<ProductoCardResponse> items = new ArrayList<>(size);
+            if (orden == Orden.RECIENTES) {
+                for (int i = resultado.nextSetBit(0); i >= 0 && items.size() < size; i = resultado.nextSetBit(i + 1)) {
+                    if (saltar-- <= 0) {
+                        items.add(productos.get(i));
+                    }
+                }
+                return items;
+            }
+            int[] recorrido = orden == Orden.POPULARIDAD ? ordenPopularidad : ordenPrecio;
+            boolean inverso = orden == Orden.PRECIO_DESC;
+            for (int k = 0; k < recorrido.length && items.size() < size; k++) {
+                int i = recorrido[inverso ? recorrido.length - 1 - k : k];
+                if (resultado.get(i) && saltar-- <= 0) {
+                    items.add(productos.get(i));
+                }
+            }
+            return items;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.web.prime_drip_club.search;
+
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Índice invertido en memoria de los productos activos sobre nombre,
+ * marca y descripción, con ranking BM25F y tolerancia a errores de
+ * escritura mediante trigramas.
+ * <p>
+ * Se construye al arrancar (o en la primera búsqueda, si al arrancar
+ * falló) y se actualiza producto a producto con los eventos de
+ * ProductoService, sin volver a consultar MySQL.
+ * </p>
+ * <p>
+ * Un índice publicado no se modifica: cada reconstrucción o cambio crea
+ * uno nuevo y lo publica de forma atómica (copy-on-write), así que una
+ * búsqueda nunca ve un índice a medio construir. Un cambio copia solo las
+ * listas de los términos que toca; el resto se comparte con el anterior.
+ * </p>
+ */
+@Slf4j
+@Component
+public class IndiceProductos {
+
+    /* peso de cada campo en la frecuencia de un término (BM25F) */
+    private static final float PESO_NOMBRE = 3f;
+    private static final float PESO_MARCA = 2f;
+    private static final float PESO_DESCRIPCION = 1f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /* factores aplicados a términos que no coinciden exactamente */
+    private static final double FACTOR_PREFIJO = 0.8;
+    private static final double FACTOR_UN_ERROR = 0.6;
+    private static final double FACTOR_DOS_ERRORES = 0.4;
+    private static final int MAX_EXPANSIONES = 8;
+
+    private final ProductoRepository productoRepository;
+    private final AtomicReference<Indice> indice = new AtomicReference<>();
+
+    public IndiceProductos(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    private record Documento(Set<String> terminos, float longitud) {
+    }
+
+    /**
+     * Estructuras de un índice publicado; ni ellas ni sus listas se
+     * modifican después de publicarlo.
+     *
+     * @param postings     término -> (id producto -> frecuencia ponderada)
+     * @param documentos   id producto -> términos y longitud ponderada del documento
+     * @param trigramas    trigrama -> términos del vocabulario que lo contienen
+     * @param vocabulario  vocabulario ordenado para búsquedas por prefijo
+     */
+    private record Indice(Map<String, Map<Long, Float>> postings, Map<Long, Documento> documentos,
+                          Map<String, Set<String>> trigramas, NavigableSet<String> vocabulario,
+                          double longitudTotal) {
+
+        static final Indice VACIO = new Indice(Map.of(), Map.of(), Map.of(),
+                Collections.emptyNavigableSet(), 0);
+    }
+
+    public record Resultado(Long id, double puntaje) {
+    }
+
+    /**
+     * Busca productos activos que coincidan con la consulta.
+     *
+     * @param consulta texto libre
+     * @param limite   número máximo de resultados
+     * @return IDs ordenados por relevancia
+     */
+    public List<Resultado> buscar(String consulta, int limite) {
+        List<String> tokens = Tokenizador.tokenizar(consulta);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        // toda la búsqueda sobre el mismo índice, aunque se publique otro mientras tanto
+        Indice actual = indice();
+        Map<String, Map<Long, Float>> postings = actual.postings();
+        Map<Long, Documento> documentos = actual.documentos();
+        int totalDocumentos = documentos.size();
+        if (totalDocumentos == 0) {
+            return List.of();
+        }
+        double longitudMedia = Math.max(actual.longitudTotal() / totalDocumentos, 1.0);
+
+        Map<Long, Double> puntajes = new HashMap<>();
+        for (String token : tokens) {
+            // un documento suma como máximo una variante por token de la consulta
+            Map<Long, Double> mejorPorToken = new HashMap<>();
+            expandir(actual, token).forEach((termino, factor) -> {
+                Map<Long, Float> lista = postings.get(termino);
+                if (lista == null || lista.isEmpty()) {
+                    return;
+                }
+                double idf = Math.log(1 + (totalDocumentos - lista.size() + 0.5) / (lista.size() + 0.5));
+                lista.forEach((id, frecuencia) -> {
+                    Documento documento = documentos.get(id);
+                    if (documento == null) {
+                        return;
+                    }
+                    double normalizacion = K1 * (1 - B + B * documento.longitud() / longitudMedia);
+                    double puntaje = factor * idf * (frecuencia * (K1 + 1)) / (frecuencia + normalizacion);
+                    mejorPorToken.merge(id, puntaje, Math::max);
+                });
+            });
+            mejorPorToken.forEach((id, puntaje) -> puntajes.merge(id, puntaje, Double::sum));
+        }
+
+        return puntajes.entrySet().stream()
+                .map(e -> new Resultado(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingDouble(Resultado::puntaje).reversed()
+                        .thenComparing(Resultado::id, Comparator.reverseOrder()))
+                .limit(limite)
+                .toList();
+    }
+
+    /**
+     * Términos del vocabulario que se consideran coincidencia del token:
+     * el propio término, los que empiezan por él y, si no existe tal cual,
+     * los que están a 1-2 ediciones de distancia (candidatos por trigramas).
+     */
+    private static Map<String, Double> expandir(Indice indice, String token) {
+        Map<String, Double> variantes = new HashMap<>();
+        boolean exacto = indice.postings().containsKey(token);
+        if (exacto) {
+            variantes.put(token, 1.0);
+        }
+        if (token.length() >= 3) {
+            for (String termino : indice.vocabulario().subSet(token, false, token + Character.MAX_VALUE, false)) {
+                if (variantes.size() >= MAX_EXPANSIONES) {
+                    break;
+                }
+                variantes.putIfAbsent(termino, FACTOR_PREFIJO);
+            }
+        }
+        if (exacto || token.length() < 4) {
+            return variantes;
+        }
+
+        int maximoErrores = token.length() <= 6 ? 1 : 2;
+        List<String> trigramasToken = Tokenizador.trigramas(token);
+        Map<String, Integer> compartidos = new HashMap<>();
+        for (String trigrama : trigramasToken) {
+            Set<String> terminos = indice.trigramas().get(trigrama);
+            if (terminos != null) {
+                terminos.forEach(t -> compartidos.merge(t, 1, Integer::sum));
+            }
+        }
+        // cada error de edición rompe como máximo 3 trigramas
+        int minimoCompartidos = Math.max(1, trigramasToken.size() - 3 * maximoErrores);
+        compartidos.entrySet().stream()
+                .filter(e -> e.getValue() >= minimoCompartidos)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_EXPANSIONES * 4L)
+                .forEach(e -> {
+                    int distancia = Tokenizador.distancia(token, e.getKey(), maximoErrores);
+                    if (distancia == 1) {
+                        variantes.merge(e.getKey(), FACTOR_UN_ERROR, Math::max);
+                    } else if (distancia == 2 && maximoErrores >= 2) {
+                        variantes.merge(e.getKey(), FACTOR_DOS_ERRORES, Math::max);
+                    }
+                });
+        return variantes;
+    }
+
+    /**
+     * Reconstruye el índice completo con los productos activos de la BD. Las
+     * búsquedas siguen usando el índice anterior hasta que el nuevo está
+     * terminado.
+     */
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        List<Producto> activos = productoRepository.findByActivo(true);
+        Edicion edicion = new Edicion(Indice.VACIO);
+        activos.forEach(edicion::indexar);
+        Indice nuevo = edicion.publicar();
+        indice.set(nuevo);
+        log.info("Índice de búsqueda construido: {} productos, {} términos en {} ms",
+                activos.size(), nuevo.vocabulario().size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlArrancar() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            // Se reintentará en la primera búsqueda
+            log.warn("No se pudo construir el índice de búsqueda: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Índice actual; si aún no se ha construido lo construye desde la BD.
+     */
+    private Indice indice() {
+        Indice actual = indice.get();
+        return actual != null ? actual : construirSiFalta();
+    }
+
+    private synchronized Indice construirSiFalta() {
+        // Otro hilo pudo haberlo construido mientras esperábamos el lock
+        if (indice.get() == null) {
+            reconstruir();
+        }
+        return indice.get();
+    }
+
+    /**
+     * Aplica los cambios de ProductoService una vez confirmada la
+     * transacción. Si el índice aún no se ha construido no hay nada que
+     * parchear: la construcción leerá el estado ya confirmado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoModificado(ProductoModificadoEvent event) {
+        Indice actual = indice.get();
+        if (actual == null) {
+            return;
+        }
+        if (event.recargaCompleta()) {
+            reconstruir();
+            return;
+        }
+        Edicion edicion = new Edicion(actual);
+        event.eliminados().forEach(edicion::quitar);
+        for (Producto producto : event.guardados()) {
+            edicion.quitar(producto.getId());
+            if (Boolean.TRUE.equals(producto.getActivo())) {
+                edicion.indexar(producto);
+            }
+        }
+        indice.set(edicion.publicar());
+    }
+
+    /**
+     * Copia de trabajo de un índice. Los mapas exteriores se copian al
+     * empezar; cada lista interior, la primera vez que se modifica. Las que
+     * no se tocan se comparten con el índice de partida, que no cambia.
+     */
+    private static final class Edicion {
+
+        private final Map<String, Map<Long, Float>> postings;
+        private final Map<Long, Documento> documentos;
+        private final Map<String, Set<String>> trigramas;
+        private final NavigableSet<String> vocabulario;
+        private double longitudTotal;
+
+        /* listas ya copiadas en esta edición, que se pueden modificar */
+        private final Set<String> postingsPropios = new HashSet<>();
+        private final Set<String> trigramasPropios = new HashSet<>();
+
+        private Edicion(Indice base) {
+            this.postings = new HashMap<>(base.postings());
+            this.documentos = new HashMap<>(base.documentos());
+            this.trigramas = new HashMap<>(base.trigramas());
+            this.vocabulario = new TreeSet<>(base.vocabulario());
+            this.longitudTotal = base.longitudTotal();
+        }
+
+        private Indice publicar() {
+            return new Indice(Collections.unmodifiableMap(postings), Collections.unmodifiableMap(documentos),
+                    Collections.unmodifiableMap(trigramas), Collections.unmodifiableNavigableSet(vocabulario),
+                    longitudTotal);
+        }
+
+        private void indexar(Producto producto) {
+            Map<String, Float> frecuencias = new HashMap<>();
+            float longitud = 0;
+            longitud += acumular(frecuencias, producto.getNombre(), PESO_NOMBRE);
+            longitud += acumular(frecuencias, producto.getMarca(), PESO_MARCA);
+            longitud += acumular(frecuencias, producto.getDescripcion(), PESO_DESCRIPCION);
+
+            Long id = producto.getId();
+            frecuencias.forEach((termino, frecuencia) -> {
+                postingsPropios(termino).put(id, frecuencia);
+                if (vocabulario.add(termino)) {
+                    for (String trigrama : Tokenizador.trigramas(termino)) {
+                        trigramasPropios(trigrama).add(termino);
+                    }
+                }
+            });
+            documentos.put(id, new Documento(Set.copyOf(frecuencias.keySet()), longitud));
+            longitudTotal += longitud;
+        }
+
+        private void quitar(Long id) {
+            Documento documento = documentos.remove(id);
+            if (documento == null) {
+                return;
+            }
+            longitudTotal -= documento.longitud();
+            List<String> huerfanos = new ArrayList<>();
+            for (String termino : documento.terminos()) {
+                if (postings.containsKey(termino)) {
+                    Map<Long, Float> lista = postingsPropios(termino);
+                    lista.remove(id);
+                    if (lista.isEmpty()) {
+                        postings.remove(termino);
+                        postingsPropios.remove(termino);
+                        huerfanos.add(termino);
+                    }
+                }
+            }
+            olvidar(huerfanos);
+        }
+
+        /* elimina del vocabulario y de los trigramas términos sin documentos */
+        private void olvidar(Collection<String> terminos) {
+            for (String termino : terminos) {
+                vocabulario.remove(termino);
+                for (String trigrama : Tokenizador.trigramas(termino)) {
+                    if (trigramas.containsKey(trigrama)) {
+                        Set<String> conjunto = trigramasPropios(trigrama);
+                        conjunto.remove(termino);
+                        if (conjunto.isEmpty()) {
+                            trigramas.remove(trigrama);
+                            trigramasPropios.remove(trigrama);
+                        }
+                    }
+                }
+            }
+        }
+
+        private Map<Long, Float> postingsPropios(String termino) {
+            if (postingsPropios.add(termino)) {
+                Map<Long, Float> base = postings.get(termino);
+                postings.put(termino, base != null ? new HashMap<>(base) : new HashMap<>());
+            }
+            return postings.get(termino);
+        }
+
+        private Set<String> trigramasPropios(String trigrama) {
+            if (trigramasPropios.add(trigrama)) {
+                Set<String> base = trigramas.get(trigrama);
+                trigramas.put(trigrama, base != null ? new HashSet<>(base) : new HashSet<>());
+            }
+            return trigramas.get(trigrama);
+        }
+    }
+
+    private static float acumular(Map<String, Float> frecuencias, String texto, float peso) {
+        List<String> tokens = Tokenizador.tokenizar(texto);
+        tokens.forEach(token -> frecuencias.merge(token, peso, Float::sum));
+        return tokens.size() * peso;
+    }
+
+    public int tamano() {
+        Indice actual = indice.get();
+        return actual != null ? actual.documentos().size() : 0;
+    }
+}
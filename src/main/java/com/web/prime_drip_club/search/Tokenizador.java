@@ -0,0 +1,93 @@
+package com.web.prime_drip_club.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza y separa texto en términos para el índice de búsqueda.
+ * Pasa a minúsculas, quita tildes y diéresis ("Niño" -> "nino",
+ * "Edición" -> "edicion") y descarta palabras vacías del español.
+ */
+public final class Tokenizador {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "se", "su", "sus", "un", "una", "y");
+
+    private Tokenizador() {
+    }
+
+    public static String normalizar(String texto) {
+        String sinTildes = MARCAS_DIACRITICAS
+                .matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty() && !PALABRAS_VACIAS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Trigramas del término con relleno ("$rolex$"), usados para
+     * encontrar términos parecidos cuando la consulta tiene errores.
+     */
+    public static List<String> trigramas(String termino) {
+        String relleno = "$" + termino + "$";
+        List<String> trigramas = new ArrayList<>(relleno.length());
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            trigramas.add(relleno.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    /**
+     * Distancia de Damerau-Levenshtein (transposiciones adyacentes).
+     * Corta en cuanto la distancia supera el máximo.
+     *
+     * @return la distancia, o maximo + 1 si es mayor que el máximo
+     */
+    public static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int minimoFila = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+                minimoFila = Math.min(minimoFila, d[i][j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
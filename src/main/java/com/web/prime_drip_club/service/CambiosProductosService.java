@@ -0,0 +1,155 @@
+package com.web.prime_drip_club.service;
+
+import com.web.prime_drip_club.cache.CatalogoProductos;
+import com.web.prime_drip_club.cache.CatalogoSnapshot;
+import com.web.prime_drip_club.dto.producto.CambiosProductosResponse;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.models.ProductoCambio;
+import com.web.prime_drip_club.repository.ProductoCambioRepository;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sincronización incremental del catálogo a partir de producto_cambio.
+ * <p>
+ * Cada respuesta lleva el estado actual (leído de la BD) de los productos
+ * que cambiaron desde la versión del cliente; varios cambios del mismo
+ * producto se entregan una sola vez. El registro se compacta
+ * periódicamente; quien sincroniza desde antes del límite compactado
+ * recibe la señal de resincronizar junto con el catálogo completo.
+ * </p>
+ */
+@Slf4j
+@Service
+public class CambiosProductosService {
+
+    /* cambios leídos como máximo por petición */
+    private static final int MAXIMO_CAMBIOS = 1000;
+
+    private final ProductoCambioRepository productoCambioRepository;
+    private final ProductoRepository productoRepository;
+    private final CatalogoProductos catalogoProductos;
+    private final Duration retencion;
+    private final int lote;
+
+    public CambiosProductosService(ProductoCambioRepository productoCambioRepository,
+                                   ProductoRepository productoRepository,
+                                   CatalogoProductos catalogoProductos,
+                                   @Value("${productos.cambios.retencion:P7D}") Duration retencion,
+                                   @Value("${productos.cambios.lote:5000}") int lote) {
+        this.productoCambioRepository = productoCambioRepository;
+        this.productoRepository = productoRepository;
+        this.catalogoProductos = catalogoProductos;
+        this.retencion = retencion;
+        this.lote = lote;
+    }
+
+    public CambiosProductosResponse obtenerCambios(Long desde) {
+        if (desde == null || desde <= 0) {
+            return resincronizar();
+        }
+        List<ProductoCambio> cambios = productoCambioRepository.findDesde(desde, MAXIMO_CAMBIOS + 1);
+        // el límite se lee DESPUÉS de los cambios: la compactación lo marca antes de borrar
+        if (desde < productoCambioRepository.versionCompactada()) {
+            return resincronizar();
+        }
+        if (cambios.isEmpty()) {
+            // una versión futura viene de otra BD (restauración): no hay historial común
+            return desde > productoCambioRepository.versionActual()
+                    ? resincronizar()
+                    : respuesta(desde, false, List.of(), List.of());
+        }
+        boolean hayMas = cambios.size() > MAXIMO_CAMBIOS;
+        if (hayMas) {
+            cambios = cambios.subList(0, MAXIMO_CAMBIOS);
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ProductoCambio cambio : cambios) {
+            if (cambio.getProductoId() == null) {
+                return resincronizar();
+            }
+            ids.add(cambio.getProductoId());
+        }
+
+        Map<Long, Producto> actuales = productoRepository.findByIds(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        List<ProductoCardResponse> productos = new ArrayList<>();
+        List<Long> eliminados = new ArrayList<>();
+        for (Long id : ids) {
+            Producto producto = actuales.get(id);
+            if (producto != null && Boolean.TRUE.equals(producto.getActivo())) {
+                productos.add(ProductoCardResponse.desde(producto));
+            } else {
+                eliminados.add(id);
+            }
+        }
+        long version = cambios.get(cambios.size() - 1).getVersion();
+        return respuesta(version, hayMas, productos, eliminados);
+    }
+
+    /**
+     * Borra los cambios con más antigüedad que la retención, en lotes.
+     */
+    @Scheduled(fixedDelayString = "${productos.cambios.compactacion:PT1H}",
+            initialDelayString = "${productos.cambios.compactacion:PT1H}")
+    public void compactar() {
+        try {
+            long hasta = productoCambioRepository.versionMasAntiguaQue(retencion);
+            if (hasta == 0) {
+                return;
+            }
+            productoCambioRepository.marcarCompactado(hasta);
+            int borrados = 0;
+            int filas;
+            do {
+                filas = productoCambioRepository.deleteHasta(hasta, lote);
+                borrados += filas;
+            } while (filas >= lote);
+            if (borrados > 0) {
+                log.info("Registro de cambios de productos compactado hasta la versión {}: {} filas", hasta, borrados);
+            }
+        } catch (Exception e) {
+            log.warn("Error al compactar el registro de cambios de productos: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Listado y versión salen del mismo snapshot: todo cambio hasta esa
+     * versión está en el listado, aunque el snapshot vaya por detrás de la
+     * BD o el cliente pase a otro nodo en la siguiente petición.
+     */
+    private CambiosProductosResponse resincronizar() {
+        CatalogoSnapshot snapshot = catalogoProductos.snapshot();
+        return CambiosProductosResponse.builder()
+                .version(snapshot.versionCambios())
+                .resincronizar(true)
+                .hayMas(false)
+                .productos(snapshot.activos())
+                .eliminados(List.of())
+                .build();
+    }
+
+    private CambiosProductosResponse respuesta(long version, boolean hayMas,
+                                               List<ProductoCardResponse> productos, List<Long> eliminados) {
+        return CambiosProductosResponse.builder()
+                .version(version)
+                .resincronizar(false)
+                .hayMas(hayMas)
+                .productos(productos)
+                .eliminados(eliminados)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.web.prime_drip_club.cache.ConsultaCompartida;
 import com.web.prime_drip_club.dto.carrito.CarritoRequest;
 import com.web.prime_drip_club.dto.carrito.CarritoResponse;
 import com.web.prime_drip_club.dto.common.Response;
@@ -17,6 +18,7 @@ import lombok.RequiredArgsConstructor;
 public class CarritoService {
 
     private final CarritoRespository carritoRespository;
+    private final ConsultaCompartida<String, CarritoResponse> carritoPorClave;
     
     @Transactional
     public CarritoResponse guardarCarrito(CarritoRequest request) {
@@ -68,10 +70,18 @@ public class CarritoService {
                 .orElse(null);
     }
 
-    @Transactional(readOnly = true)
+    /**
+        lecturas simultáneas del mismo carrito comparten una sola consulta;
+        sin @Transactional para que quien espera no retenga una conexión
+    */
     public CarritoResponse obtenerCarrito(Long carritoId, Long usuarioId, String sessionId) {
-        return  carritoRespository.obtenerCarrito(carritoId, usuarioId, sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("carrito no encontrado"));
+        String clave = carritoId + "|" + usuarioId + "|" + sessionId;
+        CarritoResponse carrito = carritoPorClave.ejecutar(clave,
+                () -> carritoRespository.obtenerCarrito(carritoId, usuarioId, sessionId).orElse(null));
+        if (carrito == null) {
+            throw new ResourceNotFoundException("carrito no encontrado");
+        }
+        return carrito;
     }
     
 }
@@ -1,29 +1,53 @@
 package com.web.prime_drip_club.service;
 
+import com.web.prime_drip_club.cache.CoherenciaCache;
+import com.web.prime_drip_club.cache.RegistroCategorias;
+import com.web.prime_drip_club.cache.VersionesCatalogo;
 import com.web.prime_drip_club.dto.categoria.CategoriaRequest;
 import com.web.prime_drip_club.dto.categoria.CategoriaResponse;
+import com.web.prime_drip_club.dto.categoria.RailCategoriaResponse;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.events.CategoriaModificadaEvent;
+import com.web.prime_drip_club.exception.ResourceNotFoundException;
 import com.web.prime_drip_club.exception.ValidationException;
 import com.web.prime_drip_club.models.Categoria;
 import com.web.prime_drip_club.repository.CategoriaRepository;
+import com.web.prime_drip_club.repository.ProductoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoriaService {
 
+    private static final int RAILS_DEFECTO = 8;
+    private static final int RAILS_MAXIMO = 24;
+
     private final CategoriaRepository categoriaRepository;
+    private final ProductoRepository productoRepository;
+    private final RegistroCategorias registroCategorias;
+    private final VersionesCatalogo versionesCatalogo;
+    private final CoherenciaCache coherenciaCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /* rails con RAILS_MAXIMO productos, válidos para la versión indicada */
+    private record Rails(String version, List<RailCategoriaResponse> rails) {
+    }
+
+    private final AtomicReference<Rails> rails = new AtomicReference<>();
 
     /**
      * Obtener todas las categorías
      */
-    @Transactional(readOnly = true)
     public List<CategoriaResponse> obtenerTodas() {
-        return categoriaRepository.findAll().stream()
+        return registroCategorias.todas().stream()
                 .map(this::convertirAResponse)
                 .collect(Collectors.toList());
     }
@@ -31,20 +55,66 @@ public class CategoriaService {
     /**
      * Obtener una categoría por ID
      */
-    @Transactional(readOnly = true)
     public CategoriaResponse obtenerPorId(Long id) {
-        Categoria categoria = categoriaRepository.findById(id)
-                .orElseThrow(() -> new ValidationException("Categoría no encontrada con ID: " + id));
+        Categoria categoria = registroCategorias.buscar(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con ID: " + id));
         return convertirAResponse(categoria);
     }
 
+    /**
+     * Los n productos activos más recientes de cada categoría con productos.
+     * Se consulta una sola vez por versión del catálogo (con el máximo de
+     * productos) y cada petición recorta su n en memoria.
+     */
+    public List<RailCategoriaResponse> obtenerRails(Integer n) {
+        int porCategoria = n != null ? n : RAILS_DEFECTO;
+        if (porCategoria < 1 || porCategoria > RAILS_MAXIMO) {
+            throw new ValidationException("n debe estar entre 1 y " + RAILS_MAXIMO);
+        }
+        // versión leída antes que los datos, igual que el ETag del controlador
+        String version = versionesCatalogo.versionProductos() + "-" + versionesCatalogo.versionCategorias();
+        Rails actual = rails.get();
+        if (actual == null || !actual.version().equals(version)) {
+            actual = cargarRails(version);
+        }
+        return actual.rails().stream()
+                .map(rail -> RailCategoriaResponse.builder()
+                        .categoriaId(rail.getCategoriaId())
+                        .categoriaNombre(rail.getCategoriaNombre())
+                        .productos(rail.getProductos().subList(0, Math.min(porCategoria, rail.getProductos().size())))
+                        .build())
+                .toList();
+    }
+
+    private synchronized Rails cargarRails(String version) {
+        Rails actual = rails.get();
+        if (actual != null && actual.version().equals(version)) {
+            return actual;
+        }
+        Map<Long, List<ProductoCardResponse>> porCategoria = productoRepository
+                .findCardsRecientesPorCategoria(RAILS_MAXIMO).stream()
+                .map(ProductoCardResponse::desde)
+                .collect(Collectors.groupingBy(ProductoCardResponse::getCategoriaId));
+        List<RailCategoriaResponse> cargados = registroCategorias.todas().stream()
+                .filter(categoria -> porCategoria.containsKey(categoria.getId()))
+                .map(categoria -> RailCategoriaResponse.builder()
+                        .categoriaId(categoria.getId())
+                        .categoriaNombre(categoria.getNombre())
+                        .productos(List.copyOf(porCategoria.get(categoria.getId())))
+                        .build())
+                .toList();
+        Rails nuevos = new Rails(version, cargados);
+        rails.set(nuevos);
+        return nuevos;
+    }
+
     /**
      * Crear una nueva categoría
      */
     @Transactional
     public CategoriaResponse crear(CategoriaRequest request) {
         // Validar que no exista una categoría con el mismo nombre
-        if (categoriaRepository.existsByNombre(request.getNombre())) {
+        if (registroCategorias.existeNombre(request.getNombre(), null)) {
             throw new ValidationException("Ya existe una categoría con el nombre: " + request.getNombre());
         }
 
@@ -55,6 +125,8 @@ public class CategoriaService {
 
         Long id = categoriaRepository.save(categoria);
         categoria.setId(id);
+        coherenciaCache.registrarCambio(CoherenciaCache.Region.CATEGORIAS);
+        eventPublisher.publishEvent(CategoriaModificadaEvent.guardada(categoria));
 
         return convertirAResponse(categoria);
     }
@@ -65,11 +137,11 @@ public class CategoriaService {
     @Transactional
     public CategoriaResponse actualizar(Long id, CategoriaRequest request) {
         // Verificar que la categoría existe
-             categoriaRepository.findById(id)
+        registroCategorias.buscar(id)
                 .orElseThrow(() -> new ValidationException("Categoría no encontrada con ID: " + id));
 
         // Validar que no exista otra categoría con el mismo nombre
-        if (categoriaRepository.existsByNombreAndNotId(request.getNombre(), id)) {
+        if (registroCategorias.existeNombre(request.getNombre(), id)) {
             throw new ValidationException("Ya existe otra categoría con el nombre: " + request.getNombre());
         }
 
@@ -80,6 +152,8 @@ public class CategoriaService {
                 .build();
 
         categoriaRepository.update(categoriaActualizada);
+        coherenciaCache.registrarCambio(CoherenciaCache.Region.CATEGORIAS);
+        eventPublisher.publishEvent(CategoriaModificadaEvent.guardada(categoriaActualizada));
         return convertirAResponse(categoriaActualizada);
     }
 
@@ -89,7 +163,7 @@ public class CategoriaService {
     @Transactional
     public void eliminar(Long id) {
         // Verificar que la categoría existe
-         categoriaRepository.findById(id)
+        registroCategorias.buscar(id)
                 .orElseThrow(() -> new ValidationException("Categoría no encontrada con ID: " + id));
 
         boolean eliminada = categoriaRepository.delete(id);
@@ -97,6 +171,8 @@ public class CategoriaService {
         if (!eliminada) {
             throw new ValidationException("No se pudo eliminar la categoría con ID: " + id);
         }
+        coherenciaCache.registrarCambio(CoherenciaCache.Region.CATEGORIAS);
+        eventPublisher.publishEvent(CategoriaModificadaEvent.eliminada(id));
     }
 
     /**
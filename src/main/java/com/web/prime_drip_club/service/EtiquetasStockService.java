@@ -0,0 +1,145 @@
+package com.web.prime_drip_club.service;
+
+import com.web.prime_drip_club.cache.CoherenciaCache;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.BloqueoRepository;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Job periódico que mantiene las etiquetas derivadas del stock y avisa de
+ * productos con poco stock.
+ * <p>
+ * Las etiquetas se recalculan con un UPDATE por lote de productos.stock.lote
+ * filas (solo se leen sus IDs, para anotarlos en producto_cambio), cada lote
+ * en su propia transacción corta. Las alertas son incrementales: solo se leen las filas
+ * cuyo stock cambió desde la pasada anterior (columna stock_actualizado).
+ * </p>
+ * <p>
+ * La marca de la pasada se toma del reloj de MySQL, el mismo que escribe
+ * stock_actualizado, así que no depende de la hora de cada nodo. Cada
+ * pasada corre con GET_LOCK: si otro nodo la está haciendo, esta se salta
+ * y solo adelanta su marca, porque esas filas ya las revisa el otro.
+ * </p>
+ * Métrica: productos.stock.alertas.
+ */
+@Slf4j
+@Service
+public class EtiquetasStockService {
+
+    /* margen para no perder filas de transacciones que confirmaron tarde */
+    private static final long SOLAPE_SEGUNDOS = 60;
+    private static final String BLOQUEO = "prime_drip_club.etiquetas_stock";
+
+    private final ProductoRepository productoRepository;
+    private final BloqueoRepository bloqueoRepository;
+    private final CoherenciaCache coherenciaCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter alertas;
+    private final int umbral;
+    private final int lote;
+
+    /* producto -> stock con el que se avisó, para no repetir la alerta */
+    private final Map<Long, Integer> avisados = new ConcurrentHashMap<>();
+    /* inicio de la pasada anterior (reloj de MySQL); el arranque revisa todas las filas */
+    private LocalDateTime ultimaPasada = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public EtiquetasStockService(ProductoRepository productoRepository,
+                                 BloqueoRepository bloqueoRepository,
+                                 CoherenciaCache coherenciaCache,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${productos.stock.umbral-ultimas-unidades:5}") int umbral,
+                                 @Value("${productos.stock.lote:500}") int lote) {
+        this.productoRepository = productoRepository;
+        this.bloqueoRepository = bloqueoRepository;
+        this.coherenciaCache = coherenciaCache;
+        this.eventPublisher = eventPublisher;
+        this.alertas = Counter.builder("productos.stock.alertas")
+                .description("Alertas de stock bajo emitidas")
+                .register(meterRegistry);
+        this.umbral = umbral;
+        this.lote = lote;
+    }
+
+    @Scheduled(fixedDelayString = "${productos.stock.intervalo:PT1M}", initialDelayString = "${productos.stock.intervalo:PT1M}")
+    public void ejecutar() {
+        try {
+            LocalDateTime inicio = productoRepository.ahora();
+            boolean ejecutada = bloqueoRepository.ejecutarSiLibre(BLOQUEO, () -> {
+                recalcularEtiquetas();
+                alertarStockBajo(inicio);
+            });
+            if (!ejecutada) {
+                log.debug("Job de etiquetas de stock en curso en otro nodo; se salta esta pasada");
+                ultimaPasada = inicio;
+            }
+        } catch (Exception e) {
+            log.warn("Error en el job de etiquetas de stock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica las tres reglas hasta que no queden filas por corregir.
+     * Si algo cambió, las cachés del catálogo se recargan una sola vez.
+     *
+     * @return número de productos cuya etiqueta cambió
+     */
+    public int recalcularEtiquetas() {
+        int cambiados = porLotes(() -> productoRepository.marcarAgotados(lote))
+                + porLotes(() -> productoRepository.marcarUltimasUnidades(umbral, lote))
+                + porLotes(() -> productoRepository.limpiarEtiquetasStock(umbral, lote));
+        if (cambiados > 0) {
+            log.info("Etiquetas de stock recalculadas: {} productos", cambiados);
+            coherenciaCache.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+            eventPublisher.publishEvent(ProductoModificadoEvent.recargarTodo());
+        }
+        return cambiados;
+    }
+
+    private int porLotes(IntSupplier actualizacion) {
+        int total = 0;
+        int filas;
+        do {
+            filas = actualizacion.getAsInt();
+            total += filas;
+        } while (filas >= lote);
+        return total;
+    }
+
+    /**
+     * @param inicio hora de MySQL leída antes de la consulta; será la marca
+     *               de la siguiente pasada
+     */
+    private void alertarStockBajo(LocalDateTime inicio) {
+        List<Producto> cambiados = productoRepository.findCardsStockCambiadoDesde(
+                ultimaPasada.minusSeconds(SOLAPE_SEGUNDOS));
+        for (Producto producto : cambiados) {
+            int stock = producto.getStock() != null ? producto.getStock() : 0;
+            if (stock > umbral || !Boolean.TRUE.equals(producto.getActivo())) {
+                avisados.remove(producto.getId());
+                continue;
+            }
+            Integer anterior = avisados.put(producto.getId(), stock);
+            if (anterior == null || anterior != stock) {
+                alertas.increment();
+                log.warn("Stock bajo: producto {} ({}) tiene {} unidades",
+                        producto.getId(), producto.getNombre(), stock);
+            }
+        }
+        ultimaPasada = inicio;
+    }
+}
@@ -0,0 +1,263 @@
+package com.web.prime_drip_club.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.prime_drip_club.cache.CoherenciaCache;
+import com.web.prime_drip_club.cache.RegistroCategorias;
+import com.web.prime_drip_club.dto.producto.ImportacionProductosResponse;
+import com.web.prime_drip_club.dto.producto.ImportacionProductosResponse.ErrorFila;
+import com.web.prime_drip_club.dto.producto.ProductoRequest;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.exception.ValidationException;
+import com.web.prime_drip_club.models.Categoria;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos desde CSV o NDJSON.
+ * <p>
+ * El archivo se lee fila a fila desde el cuerpo de la petición, sin
+ * cargarlo entero en memoria. Cada fila se valida con las mismas reglas
+ * que ProductoRequest y las válidas se insertan en lotes con
+ * JdbcTemplate.batchUpdate, un lote por transacción. Al terminar se
+ * publica una única recarga del catálogo en memoria.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportacionProductosService {
+
+    private static final int TAMANO_LOTE_MAXIMO = 5000;
+    /* la respuesta detalla como mucho este número de filas rechazadas */
+    private static final int MAXIMO_ERRORES_DETALLADOS = 500;
+
+    private final ProductoRepository productoRepository;
+    private final RegistroCategorias registroCategorias;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CoherenciaCache coherenciaCache;
+
+    @Value("${productos.importacion.tamano-lote:500}")
+    private int tamanoLoteDefecto;
+
+    public enum Formato {
+        CSV,
+        NDJSON;
+
+        /**
+         * Formato a partir del Content-Type de la petición
+         */
+        public static Formato desde(String contentType) {
+            if (contentType != null) {
+                if (contentType.contains("csv")) {
+                    return CSV;
+                }
+                if (contentType.contains("ndjson") || contentType.contains("json")) {
+                    return NDJSON;
+                }
+            }
+            throw new ValidationException("Formato no soportado, use text/csv o application/x-ndjson");
+        }
+    }
+
+    public ImportacionProductosResponse importar(InputStream entrada, Formato formato, Integer tamanoLote) {
+        int lote = tamanoLote != null ? tamanoLote : tamanoLoteDefecto;
+        if (lote < 1 || lote > TAMANO_LOTE_MAXIMO) {
+            throw new ValidationException("El tamaño de lote debe estar entre 1 y " + TAMANO_LOTE_MAXIMO);
+        }
+        Set<Long> categorias = registroCategorias.todas().stream()
+                .map(Categoria::getId)
+                .collect(Collectors.toSet());
+        Importacion importacion = new Importacion(lote, categorias);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            if (formato == Formato.CSV) {
+                leerCsv(reader, importacion);
+            } else {
+                leerNdjson(reader, importacion);
+            }
+        } catch (IOException e) {
+            importacion.rechazar(importacion.ultimaFila + 1, "Archivo mal formado: " + e.getMessage());
+        }
+        importacion.insertarPendientes();
+
+        if (importacion.insertados > 0) {
+            // los otros nodos ya se avisaron en cada lote; este recarga una sola vez al final
+            eventPublisher.publishEvent(ProductoModificadoEvent.recargarTodo());
+        }
+        log.info("Importación de productos: {} filas, {} insertados, {} con errores",
+                importacion.filasLeidas, importacion.insertados, importacion.conErrores);
+        return ImportacionProductosResponse.builder()
+                .filasLeidas(importacion.filasLeidas)
+                .insertados(importacion.insertados)
+                .conErrores(importacion.conErrores)
+                .errores(importacion.errores)
+                .build();
+    }
+
+    /* La primera fila es la cabecera con los nombres de campo de ProductoRequest */
+    private void leerCsv(BufferedReader reader, Importacion importacion) throws IOException {
+        LectorCsv lector = new LectorCsv(reader);
+        List<String> cabecera = lector.leer();
+        if (cabecera == null) {
+            return;
+        }
+        cabecera = cabecera.stream().map(String::trim).toList();
+        int fila = 1;
+        List<String> campos;
+        while ((campos = lector.leer()) != null) {
+            fila++;
+            importacion.ultimaFila = fila;
+            if (campos.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            Map<String, String> valores = new HashMap<>();
+            for (int i = 0; i < cabecera.size() && i < campos.size(); i++) {
+                String valor = campos.get(i).trim();
+                valores.put(cabecera.get(i), valor.isEmpty() ? null : valor);
+            }
+            try {
+                importacion.procesar(fila, objectMapper.convertValue(valores, ProductoRequest.class));
+            } catch (IllegalArgumentException e) {
+                importacion.rechazar(fila, "Valor no válido: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    private void leerNdjson(BufferedReader reader, Importacion importacion) throws IOException {
+        int fila = 0;
+        String linea;
+        while ((linea = reader.readLine()) != null) {
+            fila++;
+            importacion.ultimaFila = fila;
+            if (linea.isBlank()) {
+                continue;
+            }
+            ProductoRequest request;
+            try {
+                request = objectMapper.readValue(linea, ProductoRequest.class);
+            } catch (IOException e) {
+                importacion.rechazar(fila, "JSON no válido: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                continue;
+            }
+            importacion.procesar(fila, request);
+        }
+    }
+
+    /**
+     * Estado de una importación en curso: filas pendientes de insertar y
+     * contadores para el informe final.
+     */
+    private class Importacion {
+        private final int tamanoLote;
+        private final Set<Long> categorias;
+        private final List<Producto> pendientes = new ArrayList<>();
+        private final List<Integer> filasPendientes = new ArrayList<>();
+        private final List<ErrorFila> errores = new ArrayList<>();
+        private int ultimaFila;
+        private int filasLeidas;
+        private int insertados;
+        private int conErrores;
+
+        Importacion(int tamanoLote, Set<Long> categorias) {
+            this.tamanoLote = tamanoLote;
+            this.categorias = categorias;
+        }
+
+        void procesar(int fila, ProductoRequest request) {
+            filasLeidas++;
+            Set<ConstraintViolation<ProductoRequest>> violaciones = validator.validate(request);
+            if (!violaciones.isEmpty()) {
+                conErrores++;
+                agregarError(fila, violaciones.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (!categorias.contains(request.getCategoriaId())) {
+                conErrores++;
+                agregarError(fila, "categoriaId: no existe la categoría " + request.getCategoriaId());
+                return;
+            }
+            pendientes.add(Producto.builder()
+                    .nombre(request.getNombre())
+                    .descripcion(request.getDescripcion())
+                    .precio(request.getPrecio())
+                    .stock(request.getStock())
+                    .marca(request.getMarca())
+                    .imagenUrl(request.getImagenUrl())
+                    .activo(request.getActivo())
+                    .categoriaId(request.getCategoriaId())
+                    .etiqueta(request.getEtiqueta())
+                    .sexo(request.getSexo())
+                    .isFeatured(request.getIsFeatured() != null ? request.getIsFeatured() : false)
+                    .build());
+            filasPendientes.add(fila);
+            if (pendientes.size() >= tamanoLote) {
+                insertarPendientes();
+            }
+        }
+
+        void rechazar(int fila, String mensaje) {
+            filasLeidas++;
+            conErrores++;
+            agregarError(fila, mensaje);
+        }
+
+        /*
+         * Inserta el lote en su propia transacción; si falla se rechazan todas
+         * sus filas. La versión de caché sube en la misma transacción, para que
+         * los otros nodos vean cada lote confirmado aunque la importación se
+         * corte después.
+         */
+        void insertarPendientes() {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            try {
+                Integer filas = transactionTemplate.execute(status -> {
+                    int insertadas = productoRepository.saveAll(pendientes);
+                    coherenciaCache.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+                    return insertadas;
+                });
+                insertados += filas != null ? filas : 0;
+            } catch (DatabaseException e) {
+                conErrores += pendientes.size();
+                filasPendientes.forEach(fila -> agregarError(fila, "Lote rechazado por la BD: " + e.getMessage()));
+            }
+            pendientes.clear();
+            filasPendientes.clear();
+        }
+
+        private void agregarError(int fila, String mensaje) {
+            if (errores.size() < MAXIMO_ERRORES_DETALLADOS) {
+                errores.add(new ErrorFila(fila, mensaje));
+            }
+        }
+    }
+}
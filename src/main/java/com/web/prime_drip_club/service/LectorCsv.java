@@ -0,0 +1,84 @@
+package com.web.prime_drip_club.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV (RFC 4180) que lee registro a registro sin cargar el archivo
+ * completo. Soporta separador coma, campos entre comillas con comillas
+ * escapadas ("") y saltos de línea dentro de campos entrecomillados.
+ */
+final class LectorCsv {
+
+    private final Reader reader;
+    private int siguiente = -2;
+
+    LectorCsv(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return los campos del registro, o null al final del archivo
+     */
+    List<String> leer() throws IOException {
+        int c = leerCaracter();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new IOException("Campo entre comillas sin cerrar");
+                }
+                if (c == '"') {
+                    int despues = leerCaracter();
+                    if (despues == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        devolver(despues);
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int despues = leerCaracter();
+                    if (despues != '\n') {
+                        devolver(despues);
+                    }
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = leerCaracter();
+        }
+    }
+
+    private int leerCaracter() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void devolver(int c) {
+        siguiente = c;
+    }
+}
@@ -1,44 +1,258 @@
 package com.web.prime_drip_club.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.prime_drip_club.cache.CatalogoProductos;
+import com.web.prime_drip_club.cache.CoherenciaCache;
+import com.web.prime_drip_club.cache.ConsultaCompartida;
+import com.web.prime_drip_club.cache.IdsExistentes;
+import com.web.prime_drip_club.cache.RegistroCategorias;
+import com.web.prime_drip_club.dto.common.Pagina;
+import com.web.prime_drip_club.dto.producto.ActualizacionMasivaRequest;
+import com.web.prime_drip_club.dto.producto.ActualizacionMasivaResponse;
+import com.web.prime_drip_club.dto.producto.CursorProducto;
+import com.web.prime_drip_club.dto.producto.FiltroProductosRequest;
+import com.web.prime_drip_club.dto.producto.FiltroProductosResponse;
+import com.web.prime_drip_club.dto.producto.LoteProductosResponse;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
 import com.web.prime_drip_club.dto.producto.ProductoRequest;
 import com.web.prime_drip_club.dto.producto.ProductoResponse;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
 import com.web.prime_drip_club.exception.ResourceNotFoundException;
+import com.web.prime_drip_club.exception.ValidationException;
+import com.web.prime_drip_club.models.EtiquetaProducto;
 import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.models.SexoProducto;
 import com.web.prime_drip_club.repository.ProductoRepository;
+import com.web.prime_drip_club.search.IndiceFacetas;
+import com.web.prime_drip_club.search.IndiceProductos;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductoService {
 
+    private static final int TAMANO_PAGINA_DEFECTO = 24;
+    private static final int TAMANO_PAGINA_MAXIMO = 100;
+
     private final ProductoRepository productoRepository;
     private final FileStorageService fileStorageService;
+    private final CatalogoProductos catalogoProductos;
+    private final IdsExistentes idsExistentes;
+    private final RegistroCategorias registroCategorias;
+    private final CoherenciaCache coherenciaCache;
+    private final ConsultaCompartida<Long, Producto> productoPorId;
+    private final IndiceProductos indiceProductos;
+    private final IndiceFacetas indiceFacetas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Listados: proyección card, sin la descripción de cada producto
+     */
     @Transactional(readOnly = true)
-    public List<ProductoResponse> obtenerTodos() {
-        return productoRepository.findAll().stream()
-                .map(this::convertirAResponse)
+    public List<ProductoCardResponse> obtenerTodos() {
+        return productoRepository.findCards(null).stream()
+                .map(ProductoCardResponse::desde)
                 .toList();
     }
 
+    /**
+     * Página de todos los productos (activos e inactivos) directamente desde la BD
+     */
     @Transactional(readOnly = true)
-    public List<ProductoResponse> obtenerActivos() {
-        return productoRepository.findByActivo(true).stream()
-                .map(this::convertirAResponse)
+    public Pagina<ProductoCardResponse> obtenerTodos(String cursor, Integer tamano) {
+        int limite = normalizarTamano(tamano);
+        // se pide una fila extra para saber si hay página siguiente
+        CursorProducto posicion = CursorProducto.decodificar(cursor);
+        Producto despuesDe = posicion != null
+                ? Producto.builder().fechaCreacion(posicion.fechaCreacion()).id(posicion.id()).build()
+                : null;
+        List<ProductoCardResponse> filas = productoRepository.findCardPagina(null, despuesDe, limite + 1).stream()
+                .map(ProductoCardResponse::desde)
                 .toList();
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<ProductoCardResponse> items = filas.subList(0, limite);
+        return new Pagina<>(items, CursorProducto.de(items.get(limite - 1)).codificar());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Página de productos activos servida desde el catálogo en memoria
+     */
+    public Pagina<ProductoCardResponse> obtenerActivos(String cursor, Integer tamano) {
+        return catalogoProductos.obtenerActivos(CursorProducto.decodificar(cursor), normalizarTamano(tamano));
+    }
+
+    /**
+     * Se sirve desde el catálogo en memoria; sin @Transactional para no
+     * tomar una conexión del pool en cada consulta.
+     */
+    public List<ProductoCardResponse> obtenerActivos() {
+        return catalogoProductos.obtenerActivos();
+    }
+
+    /**
+     * Productos activos marcados como destacados, desde el catálogo en memoria
+     */
+    public List<ProductoCardResponse> obtenerDestacados() {
+        return catalogoProductos.obtenerActivos().stream()
+                .filter(producto -> Boolean.TRUE.equals(producto.getIsFeatured()))
+                .toList();
+    }
+
+    /**
+     * Búsqueda de texto libre sobre nombre, marca y descripción usando el
+     * índice en memoria; no consulta la BD.
+     */
+    public List<ProductoCardResponse> buscar(String consulta, Integer tamano) {
+        Map<Long, ProductoCardResponse> activos = catalogoProductos.snapshot().porId();
+        return indiceProductos.buscar(consulta, normalizarTamano(tamano)).stream()
+                .map(resultado -> activos.get(resultado.id()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Filtrado por facetas, orden y paginación sobre los índices de bits en
+     * memoria. Devuelve también los conteos por valor de cada faceta.
+     */
+    public FiltroProductosResponse filtrar(FiltroProductosRequest filtro) {
+        IndiceFacetas.Orden orden;
+        try {
+            orden = IndiceFacetas.Orden.desde(filtro.getOrden());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Orden no válido: " + filtro.getOrden());
+        }
+        IndiceFacetas.Criterios criterios = new IndiceFacetas.Criterios(
+                filtro.getCategoriaId(),
+                convertirValores(filtro.getSexo(), SexoProducto::fromValor, SexoProducto::valueOf, "Sexo"),
+                convertirValores(filtro.getEtiqueta(), EtiquetaProducto::fromValor, EtiquetaProducto::valueOf, "Etiqueta"),
+                filtro.getMarca(),
+                filtro.getDestacado(),
+                filtro.getPrecioMin(),
+                filtro.getPrecioMax(),
+                orden);
+        int pagina = filtro.getPagina() != null && filtro.getPagina() > 0 ? filtro.getPagina() : 0;
+        int size = normalizarTamano(filtro.getSize());
+
+        IndiceFacetas.Resultado resultado = indiceFacetas.filtrar(criterios, pagina, size);
+        return FiltroProductosResponse.builder()
+                .productos(resultado.productos())
+                .total(resultado.total())
+                .pagina(pagina)
+                .size(size)
+                .facetas(resultado.facetas())
+                .build();
+    }
+
+    /* acepta el valor de display ("Hombre") o el nombre del enum ("HOMBRE") */
+    private <E> List<E> convertirValores(List<String> valores, Function<String, E> porValor,
+            Function<String, E> porNombre, String campo) {
+        if (valores == null) {
+            return null;
+        }
+        return valores.stream().map(valor -> {
+            try {
+                return porValor.apply(valor);
+            } catch (IllegalArgumentException e) {
+                try {
+                    return porNombre.apply(valor);
+                } catch (IllegalArgumentException ex) {
+                    throw new ValidationException(campo + " no válido: " + valor);
+                }
+            }
+        }).toList();
+    }
+
+    /**
+     * Escribe el catálogo completo como NDJSON (un ProductoResponse por
+     * línea) a medida que se leen las filas, con memoria constante.
+     * Sin @Transactional: la conexión de streaming solo vive mientras dura
+     * la consulta.
+     */
+    public void exportar(OutputStream salida) throws IOException {
+        try (JsonGenerator generador = objectMapper.createGenerator(salida, JsonEncoding.UTF8)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.setRootValueSeparator(new SerializedString("\n"));
+            productoRepository.forEach(producto -> {
+                try {
+                    generador.writeObject(convertirAResponse(producto));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            // el salto final solo cierra la última fila: un catálogo vacío es un cuerpo vacío
+            if (generador.getOutputContext().getEntryCount() > 0) {
+                generador.writeRaw('\n');
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sin @Transactional: una sola consulta no necesita transacción y así un
+     * ID descartado por el bitset no llega a pedir conexión al pool. Las
+     * peticiones simultáneas por el mismo ID comparten una sola consulta.
+     */
     public ProductoResponse obtenerPorId(Long id) {
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + id));
+        if (idsExistentes.productoDescartado(id)) {
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + id);
+        }
+        Producto producto = productoPorId.ejecutar(id, () -> productoRepository.findById(id).orElse(null));
+        if (producto == null) {
+            idsExistentes.productoNoEncontrado(id);
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + id);
+        }
         return convertirAResponse(producto);
     }
 
+    /**
+     * Resuelve varios productos con una consulta por bloque en lugar de una
+     * por ID. El mapa conserva el orden de la petición (sin duplicados).
+     */
+    @Transactional(readOnly = true)
+    public LoteProductosResponse obtenerLote(List<Long> ids) {
+        Map<Long, Producto> encontrados = productoRepository.findByIds(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        Map<Long, ProductoResponse> productos = new LinkedHashMap<>();
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : ids) {
+            Producto producto = encontrados.get(id);
+            if (producto != null) {
+                productos.putIfAbsent(id, convertirAResponse(producto));
+            } else if (!noEncontrados.contains(id)) {
+                noEncontrados.add(id);
+            }
+        }
+        return LoteProductosResponse.builder()
+                .productos(productos)
+                .noEncontrados(noEncontrados)
+                .build();
+    }
+
     @Transactional
     public ProductoResponse crear(ProductoRequest request) {
         Producto producto = Producto.builder()
@@ -58,7 +272,11 @@ public class ProductoService {
         Long id = productoRepository.save(producto);
         producto.setId(id);
 
-        return convertirAResponse(producto);
+        // Releer para obtener la fecha_creacion asignada por la BD
+        Producto guardado = productoRepository.findById(id).orElse(producto);
+        coherenciaCache.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+        eventPublisher.publishEvent(ProductoModificadoEvent.guardado(guardado));
+        return convertirAResponse(guardado);
     }
 
     @Transactional
@@ -71,8 +289,8 @@ public class ProductoService {
             try {
                 fileStorageService.deleteImage(productoExistente.getImagenUrl());
             } catch (Exception e) {
-                // Log pero continuar
-                System.err.println("Error al eliminar imagen anterior: " + e.getMessage());
+                // la actualización sigue aunque la imagen anterior quede huérfana
+                log.warn("No se pudo eliminar la imagen anterior del producto {}: {}", id, e.getMessage());
             }
         }
 
@@ -93,9 +311,52 @@ public class ProductoService {
                 .build();
 
         productoRepository.update(productoActualizado);
+        coherenciaCache.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+        eventPublisher.publishEvent(ProductoModificadoEvent.guardado(productoActualizado));
         return convertirAResponse(productoActualizado);
     }
 
+    /**
+     * Cambios de precio, stock y/o activo de muchos productos en una sola
+     * transacción, sin leer cada producto antes ni reescribir la fila
+     * completa. Publica un único evento con los productos resultantes.
+     */
+    @Transactional
+    public ActualizacionMasivaResponse actualizarMasivo(ActualizacionMasivaRequest request) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ActualizacionMasivaRequest.Cambio cambio : request.getCambios()) {
+            if (!ids.add(cambio.getId())) {
+                throw new ValidationException("El producto con ID " + cambio.getId() + " aparece más de una vez");
+            }
+            if (cambio.getPrecio() == null && cambio.getStock() == null && cambio.getActivo() == null) {
+                throw new ValidationException("El cambio del producto con ID " + cambio.getId()
+                        + " no modifica ningún campo");
+            }
+        }
+
+        List<Long> existentes = productoRepository.updateParcial(request.getCambios().stream()
+                .map(cambio -> Producto.builder()
+                        .id(cambio.getId())
+                        .precio(cambio.getPrecio())
+                        .stock(cambio.getStock())
+                        .activo(cambio.getActivo())
+                        .build())
+                .toList());
+
+        // Una sola lectura del estado final para alimentar las cachés
+        Map<Long, Producto> actualizados = productoRepository.findByIds(existentes).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        if (!actualizados.isEmpty()) {
+            coherenciaCache.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+            eventPublisher.publishEvent(new ProductoModificadoEvent(
+                    List.copyOf(actualizados.values()), List.of(), false));
+        }
+        return ActualizacionMasivaResponse.builder()
+                .actualizados(ids.stream().filter(actualizados::containsKey).toList())
+                .noEncontrados(ids.stream().filter(id -> !actualizados.containsKey(id)).toList())
+                .build();
+    }
+
     @Transactional
     public Boolean eliminar(Long id) {
         Producto producto = productoRepository.findById(id)
@@ -105,28 +366,28 @@ public class ProductoService {
         try {
             fileStorageService.deleteImage(producto.getImagenUrl());
         } catch (Exception e) {
-            System.err.println("Error al eliminar imagen: " + e.getMessage());
+            log.warn("No se pudo eliminar la imagen del producto {}: {}", id, e.getMessage());
         }
 
         /* devuelve true si se elimino false si no se elimino */
-        return productoRepository.delete(id);
+        Boolean eliminado = productoRepository.delete(id);
+        if (eliminado) {
+            coherenciaCache.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+            eventPublisher.publishEvent(ProductoModificadoEvent.eliminado(id));
+        }
+        return eliminado;
+    }
+
+    private int normalizarTamano(Integer tamano) {
+        if (tamano == null || tamano <= 0) {
+            return TAMANO_PAGINA_DEFECTO;
+        }
+        return Math.min(tamano, TAMANO_PAGINA_MAXIMO);
     }
 
     private ProductoResponse convertirAResponse(Producto producto) {
-        return ProductoResponse.builder()
-                .id(producto.getId())
-                .nombre(producto.getNombre())
-                .descripcion(producto.getDescripcion())
-                .precio(producto.getPrecio())
-                .stock(producto.getStock())
-                .marca(producto.getMarca())
-                .imagenUrl(producto.getImagenUrl())
-                .activo(producto.getActivo())
-                .categoriaId(producto.getCategoriaId())
-                .etiqueta(producto.getEtiqueta())
-                .sexo(producto.getSexo())
-                .isFeatured(producto.getIsFeatured())
-                .fechaCreacion(producto.getFechaCreacion())
-                .build();
+        ProductoResponse response = ProductoResponse.desde(producto);
+        response.setCategoriaNombre(registroCategorias.nombre(producto.getCategoriaId()));
+        return response;
     }
 }
@@ -0,0 +1,9 @@
+-- ============================================
+-- Índices para paginación por cursor (keyset) de productos
+-- ============================================
+
+-- Listado público: WHERE activo = ? ORDER BY fecha_creacion DESC, id DESC
+CREATE INDEX idx_producto_activo_fecha ON producto(activo, fecha_creacion, id);
+
+-- Listado de administración (sin filtro de estado)
+CREATE INDEX idx_producto_fecha ON producto(fecha_creacion, id);
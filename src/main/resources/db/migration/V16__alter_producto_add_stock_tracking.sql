@@ -0,0 +1,13 @@
+-- ============================================
+-- Seguimiento de cambios de stock y etiquetas derivadas del stock
+-- ============================================
+
+-- Momento del último cambio de stock (lo mantiene ProductoRepositoryImpl).
+-- Permite que el job de alertas lea solo las filas cambiadas desde su última pasada.
+ALTER TABLE producto
+ADD COLUMN stock_actualizado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) AFTER stock;
+
+CREATE INDEX idx_producto_stock_actualizado ON producto(stock_actualizado);
+
+-- Etiquetas "Agotado" / "Últimas unidades": WHERE stock = ? / stock BETWEEN ? AND ? AND etiqueta ...
+CREATE INDEX idx_producto_stock_etiqueta ON producto(stock, etiqueta);
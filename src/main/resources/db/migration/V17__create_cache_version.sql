@@ -0,0 +1,16 @@
+-- ============================================
+-- Versiones de las cachés en memoria, compartidas entre nodos
+-- ============================================
+
+-- Cada escritura sobre una región incrementa su versión en la misma
+-- transacción; los demás nodos la leen periódicamente (lectura por PK)
+-- y recargan solo las regiones cuya versión cambió.
+CREATE TABLE cache_version (
+    region VARCHAR(32) NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    actualizado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+);
+
+INSERT INTO cache_version (region, version) VALUES
+('producto', 0),
+('categoria', 0);
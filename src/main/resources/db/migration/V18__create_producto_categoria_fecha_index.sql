@@ -0,0 +1,7 @@
+-- ============================================
+-- Índice para los rails de productos por categoría
+-- ============================================
+
+-- ROW_NUMBER() OVER (PARTITION BY categoria_id ORDER BY fecha_creacion DESC, id DESC)
+-- sobre WHERE activo = TRUE: las filas llegan ya agrupadas y ordenadas por el índice.
+CREATE INDEX idx_producto_activo_categoria_fecha ON producto(activo, categoria_id, fecha_creacion, id);
@@ -0,0 +1,22 @@
+-- ============================================
+-- Registro de cambios de productos para la sincronización incremental
+-- ============================================
+
+-- Una fila por producto creado, modificado o eliminado. La versión no es
+-- AUTO_INCREMENT: se reserva en la fila 'producto_cambio' de cache_version,
+-- cuyo bloqueo se mantiene hasta el commit, así que las versiones se
+-- confirman en orden y un lector nunca salta una que aún no se ve.
+-- producto_id NULL marca una carga masiva: los clientes deben resincronizar.
+CREATE TABLE producto_cambio (
+    version BIGINT NOT NULL PRIMARY KEY,
+    producto_id BIGINT NULL,
+    eliminado BOOLEAN NOT NULL DEFAULT FALSE,
+    fecha TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_producto_cambio_fecha (fecha)
+);
+
+-- 'producto_cambio': última versión reservada
+-- 'producto_cambio_compactado': versión más alta ya borrada por la compactación
+INSERT INTO cache_version (region, version) VALUES
+('producto_cambio', 0),
+('producto_cambio_compactado', 0);
@@ -0,0 +1,9 @@
+-- ============================================
+-- Región de caché de usuarios autenticados
+-- ============================================
+
+-- Los cambios de roles, activo o contraseña hechos fuera de la aplicación
+-- (o por otro nodo) deben incrementar esta versión para que todos los
+-- nodos descarten su caché de usuarios:
+--   UPDATE cache_version SET version = version + 1 WHERE region = 'usuario';
+INSERT INTO cache_version (region, version) VALUES ('usuario', 0);
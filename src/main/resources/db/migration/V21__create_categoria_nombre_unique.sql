@@ -0,0 +1,18 @@
+-- ============================================
+-- Nombre de categoría único
+-- ============================================
+
+-- La comprobación de CategoriaService se hace en memoria, así que dos altas
+-- simultáneas (o en nodos distintos) podían crear el mismo nombre. El índice
+-- lo impide en la BD; con la collation *_ai_ci compara igual que el registro
+-- (sin distinguir mayúsculas ni tildes).
+
+-- Duplicados previos: se conserva el primero y los demás llevan su ID en el nombre
+UPDATE categoria c
+JOIN (SELECT nombre, MIN(id) AS primero
+      FROM categoria
+      GROUP BY nombre
+      HAVING COUNT(*) > 1) d ON c.nombre = d.nombre AND c.id <> d.primero
+SET c.nombre = CONCAT(LEFT(c.nombre, 75), ' (', c.id, ')');
+
+CREATE UNIQUE INDEX uk_categoria_nombre ON categoria(nombre);
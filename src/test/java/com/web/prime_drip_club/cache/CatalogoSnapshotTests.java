@@ -0,0 +1,102 @@
+package com.web.prime_drip_club.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.web.prime_drip_club.dto.common.Pagina;
+import com.web.prime_drip_club.dto.producto.CursorProducto;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+
+class CatalogoSnapshotTests {
+
+	private static final LocalDateTime AYER = LocalDateTime.of(2024, 5, 1, 12, 0);
+	private static final LocalDateTime HOY = LocalDateTime.of(2024, 5, 2, 12, 0);
+
+	private static ProductoCardResponse producto(long id, LocalDateTime fecha, boolean activo) {
+		return ProductoCardResponse.builder().id(id).fechaCreacion(fecha).activo(activo).build();
+	}
+
+	private static List<Long> ids(List<ProductoCardResponse> productos) {
+		return productos.stream().map(ProductoCardResponse::getId).toList();
+	}
+
+	@Test
+	void soloGuardaActivosOrdenadosPorFechaEIdDescendente() {
+		CatalogoSnapshot snapshot = CatalogoSnapshot.de(1, 0, List.of(
+				producto(1, AYER, true),
+				producto(2, HOY, true),
+				producto(3, AYER, true),
+				producto(4, HOY, false)));
+
+		assertEquals(List.of(2L, 3L, 1L), ids(snapshot.activos()));
+		assertFalse(snapshot.porId().containsKey(4L));
+	}
+
+	@Test
+	void recorrerTodasLasPaginasDevuelveCadaProductoUnaVez() {
+		List<ProductoCardResponse> productos = new ArrayList<>();
+		for (long id = 1; id <= 7; id++) {
+			// varias filas con la misma fecha: el desempate es el id
+			productos.add(producto(id, id % 2 == 0 ? HOY : AYER, true));
+		}
+		CatalogoSnapshot snapshot = CatalogoSnapshot.de(1, 0, productos);
+
+		List<Long> vistos = new ArrayList<>();
+		CursorProducto cursor = null;
+		int paginas = 0;
+		do {
+			Pagina<ProductoCardResponse> pagina = snapshot.pagina(cursor, 3);
+			vistos.addAll(ids(pagina.items()));
+			cursor = CursorProducto.decodificar(pagina.nextCursor());
+			paginas++;
+		} while (cursor != null);
+
+		assertEquals(ids(snapshot.activos()), vistos);
+		assertEquals(3, paginas);
+	}
+
+	@Test
+	void laUltimaPaginaNoTraeCursor() {
+		CatalogoSnapshot snapshot = CatalogoSnapshot.de(1, 0, List.of(producto(1, AYER, true), producto(2, HOY, true)));
+
+		Pagina<ProductoCardResponse> pagina = snapshot.pagina(null, 2);
+
+		assertEquals(List.of(2L, 1L), ids(pagina.items()));
+		assertNull(pagina.nextCursor());
+	}
+
+	@Test
+	void unCursorDeUnProductoRetiradoSigueDesdeSuPosicion() {
+		CatalogoSnapshot snapshot = CatalogoSnapshot.de(1, 0, List.of(
+				producto(1, AYER, true), producto(2, AYER, true), producto(3, HOY, true)));
+		CursorProducto cursor = CursorProducto.decodificar(snapshot.pagina(null, 2).nextCursor());
+		assertNotNull(cursor);
+
+		// el último producto de la página anterior (id 2) deja de estar activo
+		CatalogoSnapshot cambiado = snapshot.conCambios(List.of(producto(2, AYER, false)), List.of(), 5);
+
+		assertEquals(List.of(1L), ids(cambiado.pagina(cursor, 2).items()));
+	}
+
+	@Test
+	void conCambiosPublicaUnaVersionNuevaSinTocarLaAnterior() {
+		CatalogoSnapshot snapshot = CatalogoSnapshot.de(1, 10, List.of(producto(1, AYER, true), producto(2, HOY, true)));
+
+		CatalogoSnapshot cambiado = snapshot.conCambios(List.of(producto(3, HOY, true)), List.of(1L), 12);
+
+		assertEquals(2, cambiado.version());
+		assertEquals(12, cambiado.versionCambios());
+		assertEquals(List.of(3L, 2L), ids(cambiado.activos()));
+		assertEquals(List.of(2L, 1L), ids(snapshot.activos()));
+		assertTrue(snapshot.porId().containsKey(1L));
+	}
+}
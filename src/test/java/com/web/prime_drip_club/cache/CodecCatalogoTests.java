@@ -0,0 +1,92 @@
+package com.web.prime_drip_club.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.models.Categoria;
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.SexoProducto;
+
+class CodecCatalogoTests {
+
+	@TempDir
+	Path directorio;
+
+	private static CodecCatalogo.Contenido contenido() {
+		List<Categoria> categorias = List.of(
+				Categoria.builder().id(1L).nombre("Zapatillas").descripcion("Urbanas").build(),
+				Categoria.builder().id(2L).nombre("Gorras").build());
+		List<ProductoCardResponse> productos = List.of(
+				ProductoCardResponse.builder()
+						.id(10L)
+						.nombre("Air Force 1")
+						.precio(new BigDecimal("119.99"))
+						.stock(5)
+						.marca("Nike")
+						.imagenUrl("/uploads/af1.png")
+						.activo(true)
+						.categoriaId(1L)
+						.etiqueta(EtiquetaProducto.NUEVO)
+						.sexo(SexoProducto.UNISEX)
+						.isFeatured(true)
+						.fechaCreacion(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123456000))
+						.build(),
+				// campos opcionales vacíos
+				ProductoCardResponse.builder()
+						.id(11L)
+						.precio(new BigDecimal("19.99"))
+						.stock(0)
+						.activo(true)
+						.categoriaId(2L)
+						.isFeatured(false)
+						.build());
+		return new CodecCatalogo.Contenido(42L, 7L, categorias, productos);
+	}
+
+	@Test
+	void loEscritoSeLeeIgual() throws IOException {
+		Path archivo = directorio.resolve("catalogo.bin");
+		CodecCatalogo.Contenido original = contenido();
+
+		CodecCatalogo.escribir(archivo, original);
+		CodecCatalogo.Contenido leido = CodecCatalogo.leer(archivo);
+
+		assertEquals(original.versionCambios(), leido.versionCambios());
+		assertEquals(original.versionCategorias(), leido.versionCategorias());
+		assertEquals(original.categorias(), leido.categorias());
+		assertEquals(original.productos(), leido.productos());
+	}
+
+	@Test
+	void unByteAlteradoNoPasaElCrc() throws IOException {
+		Path archivo = directorio.resolve("catalogo.bin");
+		CodecCatalogo.escribir(archivo, contenido());
+		byte[] bytes = Files.readAllBytes(archivo);
+		bytes[bytes.length / 2] ^= 0x01;
+		Files.write(archivo, bytes);
+
+		assertThrows(IOException.class, () -> CodecCatalogo.leer(archivo));
+	}
+
+	@Test
+	void unArchivoTruncadoSeRechaza() throws IOException {
+		Path archivo = directorio.resolve("catalogo.bin");
+		CodecCatalogo.escribir(archivo, contenido());
+		byte[] bytes = Files.readAllBytes(archivo);
+		Files.write(archivo, Arrays.copyOf(bytes, bytes.length - 10));
+
+		assertThrows(IOException.class, () -> CodecCatalogo.leer(archivo));
+	}
+}
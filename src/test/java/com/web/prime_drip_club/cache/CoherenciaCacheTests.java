@@ -0,0 +1,145 @@
+package com.web.prime_drip_club.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.web.prime_drip_club.cache.CatalogoProductos.LoteCambios;
+import com.web.prime_drip_club.events.CategoriaModificadaEvent;
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.exception.DatabaseException;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.CacheVersionRepository;
+import com.web.prime_drip_club.repository.ProductoCambioRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CoherenciaCacheTests {
+
+	private static final Producto PRODUCTO = Producto.builder().id(8L).nombre("Gorra").activo(true).build();
+
+	private CacheVersionRepository cacheVersionRepository;
+	private ProductoCambioRepository productoCambioRepository;
+	private CatalogoProductos catalogoProductos;
+	private ApplicationEventPublisher eventPublisher;
+	private CoherenciaCache coherencia;
+
+	@BeforeEach
+	void preparar() {
+		cacheVersionRepository = mock(CacheVersionRepository.class);
+		productoCambioRepository = mock(ProductoCambioRepository.class);
+		catalogoProductos = mock(CatalogoProductos.class);
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		when(productoCambioRepository.versionActual()).thenReturn(100L);
+		coherencia = new CoherenciaCache(cacheVersionRepository, productoCambioRepository, catalogoProductos,
+				eventPublisher, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void losCambiosPropiosNoRecarganLaCache() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of("producto", 5L), Map.of("producto", 7L));
+		when(cacheVersionRepository.incrementar("producto")).thenReturn(6L, 7L);
+		coherencia.leerVersionesIniciales();
+
+		coherencia.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+		coherencia.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+		coherencia.sondear();
+
+		verify(eventPublisher, never()).publishEvent(any(Object.class));
+		verify(catalogoProductos, never()).leerCambios(anyLong());
+	}
+
+	@Test
+	void unCambioDeOtroNodoPublicaSoloLosProductosCambiados() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of("producto", 5L), Map.of("producto", 6L));
+		when(catalogoProductos.leerCambios(100L)).thenReturn(new LoteCambios(List.of(PRODUCTO), List.of(9L), 102L, true));
+		coherencia.leerVersionesIniciales();
+
+		coherencia.sondear();
+
+		verify(eventPublisher).publishEvent(new ProductoModificadoEvent(List.of(PRODUCTO), List.of(9L), false));
+		verify(eventPublisher, never()).publishEvent(ProductoModificadoEvent.recargarTodo());
+	}
+
+	@Test
+	void unCambioAjenoEntrePropiosTambienSeAplica() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of("producto", 5L), Map.of("producto", 8L));
+		// la 7 la escribió otro nodo
+		when(cacheVersionRepository.incrementar("producto")).thenReturn(6L, 8L);
+		when(catalogoProductos.leerCambios(100L)).thenReturn(new LoteCambios(List.of(PRODUCTO), List.of(), 103L, true));
+		coherencia.leerVersionesIniciales();
+
+		coherencia.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+		coherencia.registrarCambio(CoherenciaCache.Region.PRODUCTOS);
+		coherencia.sondear();
+
+		verify(eventPublisher).publishEvent(new ProductoModificadoEvent(List.of(PRODUCTO), List.of(), false));
+	}
+
+	@Test
+	void cadaSondeoSigueDesdeElUltimoCambioPublicado() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of("producto", 5L), Map.of("producto", 6L),
+				Map.of("producto", 7L));
+		when(catalogoProductos.leerCambios(100L)).thenReturn(new LoteCambios(List.of(), List.of(9L), 101L, true));
+		when(catalogoProductos.leerCambios(101L)).thenReturn(new LoteCambios(List.of(PRODUCTO), List.of(), 102L, true));
+		coherencia.leerVersionesIniciales();
+
+		coherencia.sondear();
+		coherencia.sondear();
+
+		verify(eventPublisher).publishEvent(new ProductoModificadoEvent(List.of(), List.of(9L), false));
+		verify(eventPublisher).publishEvent(new ProductoModificadoEvent(List.of(PRODUCTO), List.of(), false));
+	}
+
+	@Test
+	void unHistorialCompactadoObligaARecargarTodo() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of("producto", 5L), Map.of("producto", 6L),
+				Map.of("producto", 7L));
+		when(catalogoProductos.leerCambios(100L)).thenReturn(null);
+		when(catalogoProductos.leerCambios(150L)).thenReturn(new LoteCambios(List.of(), List.of(), 150L, true));
+		coherencia.leerVersionesIniciales();
+		when(productoCambioRepository.versionActual()).thenReturn(150L);
+
+		coherencia.sondear();
+		coherencia.sondear();
+
+		verify(eventPublisher).publishEvent(ProductoModificadoEvent.recargarTodo());
+		// tras recargar sigue desde la versión leída antes de la recarga
+		verify(catalogoProductos).leerCambios(150L);
+	}
+
+	@Test
+	void siFallaLaLecturaSeReintentaEnElSiguienteSondeo() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of("producto", 5L), Map.of("producto", 6L));
+		when(catalogoProductos.leerCambios(100L))
+				.thenThrow(new DatabaseException("BD caída"))
+				.thenReturn(new LoteCambios(List.of(PRODUCTO), List.of(), 101L, true));
+		coherencia.leerVersionesIniciales();
+
+		coherencia.sondear();
+		coherencia.sondear();
+
+		verify(eventPublisher).publishEvent(new ProductoModificadoEvent(List.of(PRODUCTO), List.of(), false));
+	}
+
+	@Test
+	void sinVersionInicialSeRecargaPorSeguridad() {
+		when(cacheVersionRepository.findAll()).thenReturn(Map.of(), Map.of("categoria", 1L));
+		coherencia.leerVersionesIniciales();
+
+		coherencia.sondear();
+
+		verify(eventPublisher).publishEvent(CategoriaModificadaEvent.recargarTodo());
+		verify(eventPublisher, never()).publishEvent(ProductoModificadoEvent.recargarTodo());
+	}
+}
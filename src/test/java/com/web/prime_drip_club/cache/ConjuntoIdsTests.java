@@ -0,0 +1,103 @@
+package com.web.prime_drip_club.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConjuntoIdsTests {
+
+	private static ConjuntoIds conjunto(long margen) {
+		return new ConjuntoIds("producto", margen, new SimpleMeterRegistry());
+	}
+
+	private static List<Long> rango(long desde, long hasta) {
+		return LongStream.rangeClosed(desde, hasta).boxed().toList();
+	}
+
+	@Test
+	void sinCargarNingunIdSeDescarta() {
+		ConjuntoIds ids = conjunto(0);
+
+		assertFalse(ids.descartado(5L));
+		assertFalse(ids.descartado(null));
+	}
+
+	@Test
+	void soloDescartaIdsAusentesHastaElLimite() {
+		ConjuntoIds ids = conjunto(0);
+		ids.cargar(List.of(1L, 2L, 3L, 5L));
+
+		assertTrue(ids.descartado(4L));
+		assertTrue(ids.descartado(0L));
+		assertTrue(ids.descartado(-1L));
+		assertFalse(ids.descartado(3L));
+		// por encima del máximo otro nodo pudo haberlo insertado
+		assertFalse(ids.descartado(6L));
+	}
+
+	@Test
+	void elMargenProtegeLosIdsRecientesAunSinConfirmar() {
+		ConjuntoIds ids = conjunto(2);
+		ids.cargar(List.of(1L, 2L, 5L));
+
+		assertTrue(ids.descartado(3L));
+		assertFalse(ids.descartado(4L));
+	}
+
+	@Test
+	void elLimiteNoPasaDelMaximoDeLaCargaAnterior() {
+		ConjuntoIds ids = conjunto(0);
+		ids.cargar(rango(1, 3));
+		// 4..9 pueden ser transacciones abiertas que confirman después que 10
+		ids.cargar(List.of(1L, 2L, 3L, 10L));
+
+		assertFalse(ids.descartado(7L));
+
+		// una carga después siguen sin aparecer: eran huecos de verdad
+		ids.cargar(List.of(1L, 2L, 3L, 10L));
+
+		assertTrue(ids.descartado(7L));
+	}
+
+	@Test
+	void losIdsAgregadosDuranteLaLecturaSeSumanALaCarga() {
+		ConjuntoIds ids = conjunto(0);
+		ids.cargar(List.of(1L, 2L, 15L));
+
+		ids.iniciarCarga();
+		// este nodo confirma el 11 cuando la lectura ya no lo ve
+		ids.aplicar(List.of(11L), List.of());
+		ids.cargar(List.of(1L, 2L, 15L));
+
+		assertFalse(ids.descartado(11L));
+		assertTrue(ids.descartado(12L));
+	}
+
+	@Test
+	void losCambiosLocalesActualizanElBitset() {
+		ConjuntoIds ids = conjunto(0);
+		ids.cargar(rango(1, 10));
+
+		ids.aplicar(List.of(), List.of(4L));
+		assertTrue(ids.descartado(4L));
+
+		ids.aplicar(List.of(4L), List.of());
+		assertFalse(ids.descartado(4L));
+	}
+
+	@Test
+	void unIdQueLaBdNoEncontroSeOlvida() {
+		ConjuntoIds ids = conjunto(0);
+		ids.cargar(rango(1, 10));
+
+		ids.noEncontrado(6L);
+
+		assertTrue(ids.descartado(6L));
+	}
+}
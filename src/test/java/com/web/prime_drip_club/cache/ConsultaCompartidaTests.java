@@ -0,0 +1,115 @@
+package com.web.prime_drip_club.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConsultaCompartidaTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private ConsultaCompartida<String, String> consulta;
+	private ExecutorService hilos;
+
+	@BeforeEach
+	void preparar() {
+		meterRegistry = new SimpleMeterRegistry();
+		consulta = new ConsultaCompartida<>("prueba", meterRegistry);
+		hilos = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	void cerrar() {
+		hilos.shutdownNow();
+	}
+
+	private double colapsadas() {
+		return meterRegistry.get("consultas.compartidas").tag("resultado", "colapsada").counter().count();
+	}
+
+	/* espera a que la segunda petición se haya unido a la consulta en curso */
+	private void esperarColapsada() throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (colapsadas() < 1 && System.nanoTime() < limite) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, colapsadas());
+	}
+
+	@Test
+	void lasPeticionesSimultaneasCompartenUnaSolaConsulta() throws Exception {
+		CountDownLatch empezada = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		AtomicInteger ejecuciones = new AtomicInteger();
+
+		Future<String> primera = hilos.submit(() -> consulta.ejecutar("clave", () -> {
+			ejecuciones.incrementAndGet();
+			empezada.countDown();
+			esperar(liberar);
+			return "resultado";
+		}));
+		assertTrue(empezada.await(5, TimeUnit.SECONDS));
+		Future<String> segunda = hilos.submit(() -> consulta.ejecutar("clave", () -> {
+			ejecuciones.incrementAndGet();
+			return "otro";
+		}));
+		esperarColapsada();
+		liberar.countDown();
+
+		assertEquals("resultado", primera.get(5, TimeUnit.SECONDS));
+		assertEquals("resultado", segunda.get(5, TimeUnit.SECONDS));
+		assertEquals(1, ejecuciones.get());
+	}
+
+	@Test
+	void alTerminarLaClaveSeLibera() {
+		AtomicInteger ejecuciones = new AtomicInteger();
+
+		consulta.ejecutar("clave", ejecuciones::incrementAndGet);
+		consulta.ejecutar("clave", ejecuciones::incrementAndGet);
+
+		assertEquals(2, ejecuciones.get());
+	}
+
+	@Test
+	void elErrorSeComparteConQuienesEsperaban() throws Exception {
+		CountDownLatch empezada = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		IllegalStateException error = new IllegalStateException("BD caída");
+
+		Future<String> primera = hilos.submit(() -> consulta.ejecutar("clave", () -> {
+			empezada.countDown();
+			esperar(liberar);
+			throw error;
+		}));
+		assertTrue(empezada.await(5, TimeUnit.SECONDS));
+		Future<String> segunda = hilos.submit(() -> consulta.ejecutar("clave", () -> "otro"));
+		esperarColapsada();
+		liberar.countDown();
+
+		assertSame(error, assertThrows(ExecutionException.class, () -> primera.get(5, TimeUnit.SECONDS)).getCause());
+		assertSame(error, assertThrows(ExecutionException.class, () -> segunda.get(5, TimeUnit.SECONDS)).getCause());
+	}
+
+	private static void esperar(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
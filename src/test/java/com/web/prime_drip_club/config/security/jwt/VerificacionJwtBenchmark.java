@@ -0,0 +1,89 @@
+package com.web.prime_drip_club.config.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Verificación del token de una petición autenticada: el camino anterior
+ * (tres parseos, cada uno decodificando la clave y construyendo un parser
+ * nuevo: usuario, validez y expiración) frente a JwtUtils con la clave y el
+ * parser en caché y un único parseo.
+ * <p>
+ * Ejecutar con:
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main VerificacionJwtBenchmark"}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerificacionJwtBenchmark {
+
+	/* 256 bits, el mínimo para HS256 */
+	private static final String SECRETO = Base64.getEncoder()
+			.encodeToString("clave-de-benchmark-de-32-bytes!!".getBytes(StandardCharsets.UTF_8));
+
+	private JwtUtils jwtUtils;
+	private UserDetails usuario;
+	private String token;
+
+	@Setup
+	public void preparar() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "SECRET_KEY", SECRETO);
+		ReflectionTestUtils.setField(jwtUtils, "EXPIRATION_TIME", TimeUnit.HOURS.toMillis(1));
+		jwtUtils.init();
+		usuario = User.withUsername("cliente@primedrip.club").password("x").roles("USER").build();
+		token = jwtUtils.getToken(usuario);
+	}
+
+	@Benchmark
+	public boolean tresParseos() {
+		String email = parsearComoAntes(token).getSubject();
+		return email.equals(usuario.getUsername())
+				&& parsearComoAntes(token).getSubject().equals(usuario.getUsername())
+				&& !parsearComoAntes(token).getExpiration().before(new Date());
+	}
+
+	@Benchmark
+	public boolean unParseo() {
+		Claims claims = jwtUtils.parseToken(token);
+		return claims.getSubject() != null && jwtUtils.isTokenValid(claims, usuario);
+	}
+
+	/* getAllClaims de JwtUtils antes del cambio */
+	private static Claims parsearComoAntes(String token) {
+		SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRETO));
+		return Jwts.parser()
+				.verifyWith(key)
+				.build()
+				.parseSignedClaims(token)
+				.getPayload();
+	}
+}
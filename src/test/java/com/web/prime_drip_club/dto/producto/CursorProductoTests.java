@@ -0,0 +1,47 @@
+package com.web.prime_drip_club.dto.producto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.web.prime_drip_club.exception.ValidationException;
+
+class CursorProductoTests {
+
+	@Test
+	void codificarYDecodificarDevuelveLaMismaPosicion() {
+		ProductoCardResponse producto = ProductoCardResponse.builder()
+				.id(42L)
+				.fechaCreacion(LocalDateTime.of(2024, 3, 15, 10, 30, 5, 123_000_000))
+				.build();
+
+		CursorProducto cursor = CursorProducto.de(producto);
+
+		assertEquals(cursor, CursorProducto.decodificar(cursor.codificar()));
+	}
+
+	@Test
+	void elTokenNoLlevaCaracteresReservadosDeUrl() {
+		String token = new CursorProducto(LocalDateTime.of(2024, 1, 1, 0, 0), 7L).codificar();
+
+		assertEquals(-1, token.indexOf('+'));
+		assertEquals(-1, token.indexOf('/'));
+		assertEquals(-1, token.indexOf('='));
+	}
+
+	@Test
+	void sinCursorEsLaPrimeraPagina() {
+		assertNull(CursorProducto.decodificar(null));
+		assertNull(CursorProducto.decodificar("  "));
+	}
+
+	@Test
+	void unTokenManipuladoEsUnErrorDeValidacion() {
+		assertThrows(ValidationException.class, () -> CursorProducto.decodificar("no-es-un-cursor"));
+		assertThrows(ValidationException.class, () -> CursorProducto.decodificar("%%%"));
+	}
+}
@@ -0,0 +1,204 @@
+package com.web.prime_drip_club.repository.mapper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.models.SexoProducto;
+
+/**
+ * Mapeo de filas de producto por nombre de columna (como lo hacían los
+ * repositorios antes de MapeadorIndexado) frente a MapeadorIndexado, sobre
+ * el ResultSet de H2 en memoria. La consulta se ejecuta una vez; cada
+ * iteración vuelve al principio y mapea todas las filas, así que solo se
+ * mide el mapeo. También compara decodificar los enums recorriendo values()
+ * frente al mapa de fromValor.
+ * <p>
+ * Ejecutar con:
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main MapeoFilasBenchmark"}
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeoFilasBenchmark {
+
+	private enum Columna {
+		ID, NOMBRE, DESCRIPCION, PRECIO, STOCK, MARCA, IMAGEN_URL, ACTIVO,
+		CATEGORIA_ID, ETIQUETA, SEXO, IS_FEATURED, FECHA_CREACION
+	}
+
+	/* misma definición que PRODUCTO en ProductoRepositoryImpl */
+	private static final MapeadorIndexado<Columna, Producto> PRODUCTO = new MapeadorIndexado<>(Columna.class,
+			fila -> Producto.builder()
+					.id(fila.getLong(Columna.ID))
+					.nombre(fila.getString(Columna.NOMBRE))
+					.descripcion(fila.getString(Columna.DESCRIPCION))
+					.precio(fila.getBigDecimal(Columna.PRECIO))
+					.stock(fila.getInt(Columna.STOCK))
+					.marca(fila.getString(Columna.MARCA))
+					.imagenUrl(fila.getString(Columna.IMAGEN_URL))
+					.activo(fila.getBoolean(Columna.ACTIVO))
+					.categoriaId(fila.getLong(Columna.CATEGORIA_ID))
+					.etiqueta(fila.getEnum(Columna.ETIQUETA, EtiquetaProducto::fromValor))
+					.sexo(fila.getEnum(Columna.SEXO, SexoProducto::fromValor))
+					.isFeatured(fila.getBoolean(Columna.IS_FEATURED))
+					.fechaCreacion(fila.getLocalDateTime(Columna.FECHA_CREACION))
+					.build());
+
+	private static final String[] ETIQUETAS = { null, "Nuevo", "Oferta", "Últimas unidades", "Agotado" };
+	private static final String[] SEXOS = { "Hombre", "Mujer", "Niño", "Unisex" };
+
+	@Param({ "1000" })
+	public int filas;
+
+	private Connection conexion;
+	private Statement consulta;
+	private ResultSet rs;
+
+	@Setup(Level.Trial)
+	public void preparar() throws SQLException {
+		conexion = DriverManager.getConnection("jdbc:h2:mem:mapeo;DB_CLOSE_DELAY=-1");
+		try (Statement ddl = conexion.createStatement()) {
+			ddl.execute("DROP TABLE IF EXISTS producto");
+			ddl.execute("""
+					CREATE TABLE producto (
+					    id BIGINT PRIMARY KEY, nombre VARCHAR(255), descripcion VARCHAR(2000),
+					    precio DECIMAL(10, 2), stock INT, marca VARCHAR(100), imagen_url VARCHAR(500),
+					    activo BOOLEAN, categoria_id BIGINT, etiqueta VARCHAR(50), sexo VARCHAR(20),
+					    is_featured BOOLEAN, fecha_creacion TIMESTAMP)""");
+		}
+		try (PreparedStatement insercion = conexion.prepareStatement(
+				"INSERT INTO producto VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+			for (int i = 1; i <= filas; i++) {
+				insercion.setLong(1, i);
+				insercion.setString(2, "Producto " + i);
+				insercion.setString(3, "Descripción del producto " + i);
+				insercion.setBigDecimal(4, BigDecimal.valueOf(1999 + i, 2));
+				insercion.setInt(5, i % 50);
+				insercion.setString(6, "Marca " + (i % 20));
+				insercion.setString(7, "/uploads/" + i + ".png");
+				insercion.setBoolean(8, i % 10 != 0);
+				insercion.setLong(9, i % 8 + 1);
+				insercion.setString(10, ETIQUETAS[i % ETIQUETAS.length]);
+				insercion.setString(11, SEXOS[i % SEXOS.length]);
+				insercion.setBoolean(12, i % 7 == 0);
+				insercion.setTimestamp(13, Timestamp.valueOf(inicio.plusMinutes(i)));
+				insercion.addBatch();
+			}
+			insercion.executeBatch();
+		}
+		consulta = conexion.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+		rs = consulta.executeQuery("SELECT * FROM producto");
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() throws SQLException {
+		rs.close();
+		consulta.close();
+		conexion.close();
+	}
+
+	@Benchmark
+	public void porNombre(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		while (rs.next()) {
+			bh.consume(mapearPorNombre(rs));
+		}
+	}
+
+	@Benchmark
+	public void indexado(Blackhole bh) throws SQLException {
+		// un RowMapper por consulta, como en los repositorios
+		RowMapper<Producto> mapper = PRODUCTO.porConsulta();
+		rs.beforeFirst();
+		int fila = 0;
+		while (rs.next()) {
+			bh.consume(mapper.mapRow(rs, fila++));
+		}
+	}
+
+	@Benchmark
+	public void enumRecorriendoValues(Blackhole bh) {
+		for (int i = 0; i < filas; i++) {
+			bh.consume(sexoRecorriendoValues(SEXOS[i % SEXOS.length]));
+		}
+	}
+
+	@Benchmark
+	public void enumPorMapa(Blackhole bh) {
+		for (int i = 0; i < filas; i++) {
+			bh.consume(SexoProducto.fromValor(SEXOS[i % SEXOS.length]));
+		}
+	}
+
+	/* el mapeo que hacía ProductoRepositoryImpl antes de MapeadorIndexado */
+	private static Producto mapearPorNombre(ResultSet rs) throws SQLException {
+		String etiquetaValor = rs.getString("etiqueta");
+		String sexoValor = rs.getString("sexo");
+		return Producto.builder()
+				.id(rs.getLong("id"))
+				.nombre(rs.getString("nombre"))
+				.descripcion(rs.getString("descripcion"))
+				.precio(rs.getBigDecimal("precio"))
+				.stock(rs.getInt("stock"))
+				.marca(rs.getString("marca"))
+				.imagenUrl(rs.getString("imagen_url"))
+				.activo(rs.getBoolean("activo"))
+				.categoriaId(rs.getLong("categoria_id"))
+				.etiqueta(etiquetaValor != null ? etiquetaRecorriendoValues(etiquetaValor) : null)
+				.sexo(sexoValor != null ? sexoRecorriendoValues(sexoValor) : null)
+				.isFeatured(rs.getBoolean("is_featured"))
+				.fechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime())
+				.build();
+	}
+
+	/* fromValor antes de las tablas de búsqueda */
+	private static EtiquetaProducto etiquetaRecorriendoValues(String valor) {
+		for (EtiquetaProducto etiqueta : EtiquetaProducto.values()) {
+			if (etiqueta.getValor().equals(valor)) {
+				return etiqueta;
+			}
+		}
+		throw new IllegalArgumentException("Etiqueta no válida: " + valor);
+	}
+
+	private static SexoProducto sexoRecorriendoValues(String valor) {
+		for (SexoProducto sexo : SexoProducto.values()) {
+			if (sexo.getValor().equals(valor)) {
+				return sexo;
+			}
+		}
+		throw new IllegalArgumentException("Sexo no válido: " + valor);
+	}
+}
@@ -0,0 +1,175 @@
+package com.web.prime_drip_club.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.web.prime_drip_club.cache.CatalogoProductos;
+import com.web.prime_drip_club.cache.CatalogoSnapshot;
+import com.web.prime_drip_club.dto.producto.ProductoCardResponse;
+import com.web.prime_drip_club.models.EtiquetaProducto;
+import com.web.prime_drip_club.models.SexoProducto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+import com.web.prime_drip_club.search.IndiceFacetas.Criterios;
+import com.web.prime_drip_club.search.IndiceFacetas.Orden;
+import com.web.prime_drip_club.search.IndiceFacetas.Resultado;
+
+class IndiceFacetasTests {
+
+	private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	private CatalogoProductos catalogoProductos;
+	private ProductoRepository productoRepository;
+	private IndiceFacetas indice;
+
+	private static ProductoCardResponse producto(long id, long categoriaId, SexoProducto sexo, String marca,
+			String precio, boolean destacado) {
+		return ProductoCardResponse.builder()
+				.id(id)
+				.categoriaId(categoriaId)
+				.sexo(sexo)
+				.marca(marca)
+				.precio(new BigDecimal(precio))
+				.isFeatured(destacado)
+				.activo(true)
+				// a mayor id, más reciente
+				.fechaCreacion(INICIO.plusDays(id))
+				.build();
+	}
+
+	private static Criterios todos(Orden orden) {
+		return new Criterios(null, null, null, null, null, null, null, orden);
+	}
+
+	private static List<Long> ids(Resultado resultado) {
+		return resultado.productos().stream().map(ProductoCardResponse::getId).toList();
+	}
+
+	@BeforeEach
+	void preparar() {
+		ProductoCardResponse oferta = producto(4, 20, SexoProducto.UNISEX, "Puma", "120.00", false);
+		oferta.setEtiqueta(EtiquetaProducto.OFERTA);
+		CatalogoSnapshot snapshot = CatalogoSnapshot.de(1, 0, List.of(
+				producto(1, 10, SexoProducto.HOMBRE, "Nike", "50.00", true),
+				producto(2, 10, SexoProducto.MUJER, "Adidas", "80.00", false),
+				producto(3, 20, SexoProducto.HOMBRE, " nike ", "20.00", false),
+				oferta));
+		catalogoProductos = mock(CatalogoProductos.class);
+		when(catalogoProductos.snapshot()).thenReturn(snapshot);
+		productoRepository = mock(ProductoRepository.class);
+		when(productoRepository.findUnidadesVendidas()).thenReturn(Map.of(1L, 10L, 3L, 5L));
+		indice = new IndiceFacetas(catalogoProductos, productoRepository);
+		indice.cargarPopularidadAlArrancar();
+	}
+
+	@Test
+	void sinFiltrosDevuelveTodoPorMasRecientes() {
+		Resultado resultado = indice.filtrar(todos(Orden.RECIENTES), 0, 10);
+
+		assertEquals(List.of(4L, 3L, 2L, 1L), ids(resultado));
+		assertEquals(4, resultado.total());
+	}
+
+	@Test
+	void elConteoDeUnaFacetaIgnoraSuPropioFiltro() {
+		Resultado resultado = indice.filtrar(
+				new Criterios(List.of(10L), null, null, null, null, null, null, Orden.RECIENTES), 0, 10);
+
+		assertEquals(List.of(2L, 1L), ids(resultado));
+		assertEquals(Map.of("10", 2, "20", 2), resultado.facetas().get(IndiceFacetas.FACETA_CATEGORIA));
+		assertEquals(Map.of("Hombre", 1, "Mujer", 1), resultado.facetas().get(IndiceFacetas.FACETA_SEXO));
+	}
+
+	@Test
+	void lasMarcasSeComparanNormalizadas() {
+		Resultado resultado = indice.filtrar(
+				new Criterios(null, null, null, List.of("NIKE"), null, null, null, Orden.RECIENTES), 0, 10);
+
+		assertEquals(List.of(3L, 1L), ids(resultado));
+		assertEquals(2, resultado.facetas().get(IndiceFacetas.FACETA_MARCA).get("nike"));
+	}
+
+	@Test
+	void filtraPorEtiquetaYDestacado() {
+		assertEquals(List.of(4L), ids(indice.filtrar(new Criterios(null, null, List.of(EtiquetaProducto.OFERTA),
+				null, null, null, null, Orden.RECIENTES), 0, 10)));
+
+		Resultado destacados = indice.filtrar(
+				new Criterios(null, null, null, null, true, null, null, Orden.RECIENTES), 0, 10);
+		assertEquals(List.of(1L), ids(destacados));
+		assertEquals(Map.of("true", 1, "false", 3), destacados.facetas().get(IndiceFacetas.FACETA_DESTACADO));
+	}
+
+	@Test
+	void elRangoDePrecioIncluyeLosExtremos() {
+		Criterios rango = new Criterios(null, null, null, null, null,
+				new BigDecimal("50"), new BigDecimal("80"), Orden.PRECIO_ASC);
+
+		assertEquals(List.of(1L, 2L), ids(indice.filtrar(rango, 0, 10)));
+	}
+
+	@Test
+	void ordenaPorPrecioYPorPopularidad() {
+		assertEquals(List.of(4L, 2L, 1L, 3L), ids(indice.filtrar(todos(Orden.PRECIO_DESC), 0, 10)));
+		// sin ventas, el más reciente primero
+		assertEquals(List.of(1L, 3L, 4L, 2L), ids(indice.filtrar(todos(Orden.POPULARIDAD), 0, 10)));
+	}
+
+	@Test
+	void paginaSobreElResultadoOrdenado() {
+		assertEquals(List.of(2L, 1L), ids(indice.filtrar(todos(Orden.RECIENTES), 1, 2)));
+		assertEquals(List.of(3L), ids(indice.filtrar(todos(Orden.POPULARIDAD), 1, 1)));
+	}
+
+	@Test
+	void unaPaginaEnormeDevuelveVacioSinDesbordar() {
+		Resultado resultado = indice.filtrar(todos(Orden.RECIENTES), Integer.MAX_VALUE, 50);
+
+		assertEquals(List.of(), ids(resultado));
+		assertEquals(4, resultado.total());
+	}
+
+	@Test
+	void unCambioDelCatalogoNoConsultaLaPopularidad() {
+		indice.filtrar(todos(Orden.POPULARIDAD), 0, 10);
+		ProductoCardResponse nuevo = producto(5, 10, SexoProducto.MUJER, "Nike", "60.00", false);
+		CatalogoSnapshot siguiente = catalogoProductos.snapshot().conCambios(List.of(nuevo), List.of(), 1);
+		when(catalogoProductos.snapshot()).thenReturn(siguiente);
+
+		Resultado resultado = indice.filtrar(todos(Orden.POPULARIDAD), 0, 10);
+
+		// se reagrupa con el mapa que ya había
+		assertEquals(List.of(1L, 3L, 5L, 4L, 2L), ids(resultado));
+		verify(productoRepository, times(1)).findUnidadesVendidas();
+	}
+
+	@Test
+	void elRefrescoDeLaPopularidadReconstruyeFueraDeLaPeticion() {
+		indice.filtrar(todos(Orden.POPULARIDAD), 0, 10);
+		when(productoRepository.findUnidadesVendidas()).thenReturn(Map.of(2L, 30L));
+
+		indice.refrescarPopularidad();
+
+		assertEquals(List.of(2L, 4L, 3L, 1L), ids(indice.filtrar(todos(Orden.POPULARIDAD), 0, 10)));
+		verify(productoRepository, times(2)).findUnidadesVendidas();
+	}
+
+	@Test
+	void siFallaElRefrescoSeConservaLaPopularidadAnterior() {
+		when(productoRepository.findUnidadesVendidas()).thenThrow(new IllegalStateException("BD caída"));
+
+		indice.refrescarPopularidad();
+
+		assertEquals(List.of(1L, 3L, 4L, 2L), ids(indice.filtrar(todos(Orden.POPULARIDAD), 0, 10)));
+	}
+}
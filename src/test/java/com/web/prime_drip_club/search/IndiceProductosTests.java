@@ -0,0 +1,107 @@
+package com.web.prime_drip_club.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.web.prime_drip_club.events.ProductoModificadoEvent;
+import com.web.prime_drip_club.models.Producto;
+import com.web.prime_drip_club.repository.ProductoRepository;
+
+class IndiceProductosTests {
+
+	private ProductoRepository productoRepository;
+	private IndiceProductos indice;
+
+	private static Producto producto(long id, String nombre, String marca, String descripcion) {
+		return Producto.builder()
+				.id(id)
+				.nombre(nombre)
+				.marca(marca)
+				.descripcion(descripcion)
+				.activo(true)
+				.build();
+	}
+
+	private static List<Long> ids(List<IndiceProductos.Resultado> resultados) {
+		return resultados.stream().map(IndiceProductos.Resultado::id).toList();
+	}
+
+	@BeforeEach
+	void preparar() {
+		productoRepository = mock(ProductoRepository.class);
+		when(productoRepository.findByActivo(true)).thenReturn(List.of(
+				producto(1, "Reloj Submariner", "Rolex", "Reloj automático de buceo"),
+				producto(2, "Correa de cuero", "Genérica", "Compatible con relojes Rolex"),
+				producto(3, "Gorra clásica", "Nike", "Gorra de algodón")));
+		indice = new IndiceProductos(productoRepository);
+		indice.reconstruir();
+	}
+
+	@Test
+	void elNombreYLaMarcaPesanMasQueLaDescripcion() {
+		assertEquals(List.of(1L, 2L), ids(indice.buscar("rolex", 10)));
+	}
+
+	@Test
+	void cadaTerminoDeLaConsultaSumaAlPuntaje() {
+		List<IndiceProductos.Resultado> resultados = indice.buscar("reloj buceo", 10);
+
+		assertEquals(1L, resultados.get(0).id());
+		assertTrue(resultados.get(0).puntaje() > 0);
+	}
+
+	@Test
+	void toleraErroresDeEscrituraYTildes() {
+		assertEquals(1L, ids(indice.buscar("rolez", 10)).get(0));
+		assertEquals(List.of(3L), ids(indice.buscar("clasica", 10)));
+	}
+
+	@Test
+	void encuentraPorPrefijo() {
+		assertEquals(List.of(2L), ids(indice.buscar("corr", 10)));
+	}
+
+	@Test
+	void respetaElLimite() {
+		assertEquals(1, indice.buscar("rolex", 1).size());
+		assertEquals(List.of(), indice.buscar("de", 10));
+	}
+
+	@Test
+	void losCambiosSeReflejanSinReconstruir() {
+		indice.onProductoModificado(ProductoModificadoEvent.eliminado(1L));
+		indice.onProductoModificado(ProductoModificadoEvent.guardado(
+				producto(4, "Reloj Datejust", "Rolex", null)));
+
+		assertEquals(List.of(4L, 2L), ids(indice.buscar("rolex", 10)));
+		assertEquals(3, indice.tamano());
+		verify(productoRepository, times(1)).findByActivo(true);
+	}
+
+	@Test
+	void unProductoDesactivadoSaleDelIndice() {
+		Producto desactivado = producto(3, "Gorra clásica", "Nike", "Gorra de algodón");
+		desactivado.setActivo(false);
+
+		indice.onProductoModificado(ProductoModificadoEvent.guardado(desactivado));
+
+		assertEquals(List.of(), indice.buscar("gorra", 10));
+	}
+
+	@Test
+	void siNoSeConstruyoAlArrancarLoHaceLaPrimeraBusqueda() {
+		IndiceProductos sinConstruir = new IndiceProductos(productoRepository);
+
+		assertEquals(List.of(3L), ids(sinConstruir.buscar("gorra", 10)));
+		assertEquals(3, sinConstruir.tamano());
+	}
+}
@@ -0,0 +1,47 @@
+package com.web.prime_drip_club.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TokenizadorTests {
+
+	@Test
+	void normalizarQuitaTildesYMayusculas() {
+		assertEquals("nino edicion pinguino", Tokenizador.normalizar("Niño Edición PINGÜINO"));
+	}
+
+	@Test
+	void tokenizarSeparaPorSignosYDescartaPalabrasVacias() {
+		assertEquals(List.of("zapatillas", "running", "hombre", "42"),
+				Tokenizador.tokenizar("Zapatillas de running para hombre (42)"));
+	}
+
+	@Test
+	void tokenizarTextoVacioNoDevuelveTerminos() {
+		assertEquals(List.of(), Tokenizador.tokenizar(null));
+		assertEquals(List.of(), Tokenizador.tokenizar("   "));
+		assertEquals(List.of(), Tokenizador.tokenizar("de la y"));
+	}
+
+	@Test
+	void trigramasIncluyenElRelleno() {
+		assertEquals(List.of("$ro", "rol", "ole", "lex", "ex$"), Tokenizador.trigramas("rolex"));
+	}
+
+	@Test
+	void distanciaCuentaLaTransposicionComoUnSoloError() {
+		assertEquals(0, Tokenizador.distancia("rolex", "rolex", 2));
+		assertEquals(1, Tokenizador.distancia("rolex", "rloex", 2));
+		assertEquals(1, Tokenizador.distancia("rolex", "rolx", 2));
+		assertEquals(2, Tokenizador.distancia("rolex", "rlx", 2));
+	}
+
+	@Test
+	void distanciaCortaAlSuperarElMaximo() {
+		assertEquals(2, Tokenizador.distancia("rolex", "casio", 1));
+		assertEquals(2, Tokenizador.distancia("a", "abcdef", 1));
+	}
+}
@@ -0,0 +1,63 @@
+package com.web.prime_drip_club.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LectorCsvTests {
+
+	private static List<List<String>> leerTodo(String csv) throws IOException {
+		LectorCsv lector = new LectorCsv(new StringReader(csv));
+		List<List<String>> registros = new ArrayList<>();
+		List<String> registro;
+		while ((registro = lector.leer()) != null) {
+			registros.add(registro);
+		}
+		return registros;
+	}
+
+	@Test
+	void separaCamposPorComas() throws IOException {
+		assertEquals(List.of(List.of("nombre", "precio"), List.of("Gorra", "19.99")),
+				leerTodo("nombre,precio\nGorra,19.99\n"));
+	}
+
+	@Test
+	void lasComillasAdmitenComasComillasYSaltosDeLinea() throws IOException {
+		assertEquals(List.of(List.of("Gorra, talla única", "dice \"hola\"", "línea 1\nlínea 2")),
+				leerTodo("\"Gorra, talla única\",\"dice \"\"hola\"\"\",\"línea 1\nlínea 2\"\n"));
+	}
+
+	@Test
+	void aceptaFinDeLineaWindowsYUltimaLineaSinSalto() throws IOException {
+		assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), leerTodo("a,b\r\nc,d"));
+	}
+
+	@Test
+	void conservaLosCamposVacios() throws IOException {
+		assertEquals(List.of(List.of("", "x", "")), leerTodo(",x,\n"));
+		assertEquals(List.of(List.of("")), leerTodo("\n"));
+	}
+
+	@Test
+	void unaComillaEnMedioDelCampoEsUnCaracterNormal() throws IOException {
+		assertEquals(List.of(List.of("12\" pulgadas")), leerTodo("12\" pulgadas\n"));
+	}
+
+	@Test
+	void unaComillaSinCerrarEsUnError() {
+		assertThrows(IOException.class, () -> leerTodo("\"sin cerrar,1\n"));
+	}
+
+	@Test
+	void unArchivoVacioNoTieneRegistros() throws IOException {
+		assertNull(new LectorCsv(new StringReader("")).leer());
+	}
+}